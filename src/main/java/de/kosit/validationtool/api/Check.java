@@ -17,6 +17,10 @@
 package de.kosit.validationtool.api;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.w3c.dom.Document;
@@ -49,9 +53,32 @@ public interface Check {
      */
     Result checkInput(Input input);
 
+    /**
+     * Checks an incoming xml file asynchronously using the implementation's default {@link Executor}.
+     *
+     * @param input the resource / xml file to validate.
+     * @return a {@link CompletionStage} of the {@link Result}
+     */
+    default CompletionStage<Result> checkInputAsync(final Input input) {
+        return checkInputAsync(input, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Checks an incoming xml file asynchronously using the given {@link Executor}, e.g. an executor based on virtual
+     * threads on newer java versions.
+     *
+     * @param input the resource / xml file to validate.
+     * @param executor the executor running the check
+     * @return a {@link CompletionStage} of the {@link Result}
+     */
+    default CompletionStage<Result> checkInputAsync(final Input input, final Executor executor) {
+        return CompletableFuture.supplyAsync(() -> checkInput(input), executor);
+    }
+
     /**
      * Checks an incoming xml files in batch mode. Processing is sequential. The result-{@link Document Documents} are
-     * readonly. To change the this document you need to copy them into new {@link Document Documents}.
+     * readonly. To change the this document you need to copy them into new {@link Document Documents}. See
+     * {@link de.kosit.validationtool.impl.ConcurrentCheck} for concurrent processing.
      * 
      * 
      * @param input list of xml {@link Input Inputs}
@@ -62,7 +89,8 @@ public interface Check {
     }
 
     /**
-     * Checks an incoming xml files in batch mode. Processing is sequential.
+     * Checks an incoming xml files in batch mode. Processing is sequential. See
+     * {@link de.kosit.validationtool.impl.ConcurrentCheck} for concurrent processing.
      *
      * @param input list of xml {@link Input Inputs}
      * @return list of {@link Result}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.api;
+
+import java.security.MessageDigest;
+
+/**
+ * Service provider interface for digest algorithms used for document identification. Implementations supply digests
+ * outside of the JCA provider infrastructure, e.g. fast non-cryptographic hash functions which are sufficient for
+ * deduplication. The name of the algorithm is recorded in the report along with the hash value.
+ * 
+ * Providers are discovered via {@link java.util.ServiceLoader} or registered using
+ * {@link InputFactory#register(DigestProvider)}. An algorithm is selected per {@link Input} by its name, e.g.
+ * {@link InputFactory#read(java.nio.file.Path, String)}. Algorithms not provided by a {@link DigestProvider} are
+ * resolved via {@link MessageDigest#getInstance(String)}.
+ */
+public interface DigestProvider {
+
+    /**
+     * The name of the digest algorithm.
+     *
+     * @return the name
+     */
+    String getAlgorithm();
+
+    /**
+     * Creates a new digest instance. Instances are not shared between threads.
+     *
+     * @return a new {@link MessageDigest}
+     */
+    MessageDigest createDigest();
+}
@@ -25,6 +25,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.UUID;
 
@@ -37,8 +38,11 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.impl.input.ByteArrayInput;
+import de.kosit.validationtool.impl.input.MappedFileInput;
+import de.kosit.validationtool.impl.input.MemoryBudget;
 import de.kosit.validationtool.impl.input.ResourceInput;
 import de.kosit.validationtool.impl.input.SourceInput;
+import de.kosit.validationtool.impl.input.SpoolingInput;
 import de.kosit.validationtool.impl.input.StreamHelper;
 import de.kosit.validationtool.impl.input.XdmNodeInput;
 
@@ -58,7 +62,7 @@ public class InputFactory {
     /**
      * Pseudo hashcode algorithm name, which indicates, thate the hashcode of the {@link Input} is actually the name.
      */
-    static final String PSEUDO_NAME_ALGORITHM = "NAME";
+    public static final String PSEUDO_NAME_ALGORITHM = "NAME";
 
     private static final String MESSAGE_OPEN_STREAM_ERROR = "Can not open stream from";
 
@@ -75,6 +79,17 @@ public class InputFactory {
         StreamHelper.createDigest(this.algorithm);
     }
 
+    /**
+     * Registriert einen {@link DigestProvider} für die Ermittlung der Prüfsumme. Der Algorithmus kann anschließend über
+     * seinen Namen bei allen <code>read</code>-Methoden mit Prüfsummenalgorithmus gewählt werden. Neben den
+     * JCA-Algorithmen steht <code>XXH64</code> (xxHash64) ohne Registrierung zur Verfügung.
+     *
+     * @param provider der Provider
+     */
+    public static void register(final DigestProvider provider) {
+        StreamHelper.register(provider);
+    }
+
     /**
      * Liest einen Prüfling von dem übergebenen Pfad. Es wird der Default-Prüfsummenalgorithmus zur Ermittlung der
      * Prüfsumme genutzt.
@@ -87,8 +102,9 @@ public class InputFactory {
     }
 
     /**
-     * Liest einen Prüfling von der übergebenen URL. Es wird ein definierter Algorithmis zur Ermittlung der Prüfsumme
-     * genutzt.
+     * Liest einen Prüfling von dem übergebenen Pfad. Es wird ein definierter Algorithmis zur Ermittlung der Prüfsumme
+     * genutzt. Reguläre Dateien werden in den Speicher gemappt ({@link MappedFileInput}) und können ohne erneutes
+     * Öffnen mehrfach gelesen werden.
      *
      * @param path der Prüflings
      * @param digestAlgorithm der Prüfsummenalgorithmus
@@ -96,9 +112,21 @@ public class InputFactory {
      */
     public static Input read(final Path path, final String digestAlgorithm) {
         checkNull(path);
+        if (isMappable(path)) {
+            return new MappedFileInput(path, path.toUri().getRawPath(), digestAlgorithm);
+        }
         return read(path.toUri(), digestAlgorithm);
     }
 
+    private static boolean isMappable(final Path path) {
+        try {
+            return Files.isRegularFile(path) && Files.isReadable(path) && Files.size(path) <= Integer.MAX_VALUE;
+        } catch (final IOException e) {
+            log.debug("Can not determine size of {}", path, e);
+            return false;
+        }
+    }
+
     /**
      * Liest einen Prüfling von der übergebenen Datei. Es wird der Default-Prüfsummenalgorithmus zur Ermittlung der
      * Prüfsumme genutzt.
@@ -231,12 +259,7 @@ public class InputFactory {
      */
     public static Input read(final File file, final String digestAlgorithm) {
         checkNull(file);
-        try {
-            return read(file.toURI().toURL(), digestAlgorithm);
-        } catch (final IOException e) {
-            throw new IllegalArgumentException(MESSAGE_OPEN_STREAM_ERROR + file, e);
-        }
-
+        return read(file.toPath(), digestAlgorithm);
     }
 
     /**
@@ -301,6 +324,36 @@ public class InputFactory {
         return read(new StreamSource(inputStream, name), name, digestAlgorithm);
     }
 
+    /**
+     * Liest einen Prüfling vom übergebenen {@link InputStream} und puffert ihn für mehrfaches Lesen. Der Inhalt wird
+     * bis zu {@link SpoolingInput#DEFAULT_HEAP_LIMIT} Bytes im Heap gehalten, soweit das prozessweite
+     * {@link MemoryBudget#getDefault() Speicherbudget} dies zulässt, der Rest wird in eine temporäre Datei ausgelagert.
+     * Das {@link Input} implementiert {@link java.io.Closeable} und ist nach der Prüfung zu schließen.
+     *
+     * @param inputStream der {@link InputStream}
+     * @param name der Name/Bezeichner des Prüflings
+     * @return einen Prüfling
+     */
+    public static Input spool(final InputStream inputStream, final String name) {
+        return spool(inputStream, name, DEFAULT_ALGORITH, SpoolingInput.DEFAULT_HEAP_LIMIT);
+    }
+
+    /**
+     * Liest einen Prüfling vom übergebenen {@link InputStream} und puffert ihn für mehrfaches Lesen.
+     *
+     * @param inputStream der {@link InputStream}
+     * @param name der Name/Bezeichner des Prüflings
+     * @param digestAlgorithm der Prüfsummenalgorithmus
+     * @param heapLimit maximale Anzahl Bytes, die im Heap gepuffert werden
+     * @return einen Prüfling
+     * @see #spool(InputStream, String)
+     */
+    public static Input spool(final InputStream inputStream, final String name, final String digestAlgorithm, final long heapLimit) {
+        checkNull(inputStream);
+        checkNotEmpty(name);
+        return new SpoolingInput(inputStream, name, digestAlgorithm, heapLimit, MemoryBudget.getDefault());
+    }
+
     /**
      * Reads a saxon {@link XdmNode} with a given name. Hashcode identification is based on the name of the supplied
      * input. Now real hashcode is computed.
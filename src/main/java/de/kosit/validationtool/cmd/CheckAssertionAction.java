@@ -111,7 +111,7 @@ class CheckAssertionAction implements CheckAction {
         }
     }
 
-    private Map<String, List<AssertionType>> getMapped() {
+    private synchronized Map<String, List<AssertionType>> getMapped() {
         if (mappedAssertions == null) {
             mappedAssertions = new HashMap<>();
             for (AssertionType assertionType : assertions.getAssertion()) {
@@ -68,6 +68,10 @@ public class CommandLineOptions implements Callable<ReturnValue> {
 
         @Option(names = { "-G", "--disable-gui" }, description = "Disables the GUI of the daemon mode")
         private boolean disableGUI;
+
+        @Option(names = { "--speculative" },
+                description = "Runs schematron validation in parallel to schema validation. Results are discarded for schema invalid documents")
+        private boolean speculative;
     }
 
     /**
@@ -104,6 +108,11 @@ public class CommandLineOptions implements Callable<ReturnValue> {
         @Option(names = { "-p", "--print" }, description = "Prints the check result to stdout")
         private boolean printReport;
 
+        @Option(names = { "--parallel" }, paramLabel = "N",
+                description = "Number of files validated in parallel. Default is 1 (sequential)", defaultValue = "1",
+                showDefaultValue = Visibility.NEVER, converter = TypeConverter.ParallelismConverter.class)
+        private int parallelism = 1;
+
         @Parameters(arity = "1..*", description = "Files to validate")
         private List<Path> files;
 
@@ -163,6 +172,22 @@ public class CommandLineOptions implements Callable<ReturnValue> {
             converter = TypeConverter.RepositoryConverter.class)
     private List<RepositoryDefinition> repositories;
 
+    @Option(names = { "--artifact-cache" }, paramLabel = "cache-directory",
+            description = "Directory for caching compiled artifacts across restarts (requires Saxon-PE/EE, ignored with Saxon-HE)")
+    private Path artifactCache;
+
+    @Option(names = { "--lazy-init" }, description = "Compiles the scenario artifacts on first use instead of on startup")
+    private boolean lazyInitialization;
+
+    @Option(names = { "--warm-up" }, paramLabel = "scenario-name",
+            description = "Name of a scenario to compile on startup in lazy mode. Can be specified multiple times")
+    private List<String> warmUp;
+
+    @Option(names = { "--digest-algorithm" }, paramLabel = "algorithm",
+            description = "Digest algorithm used to identify the documents, e.g. XXH64", defaultValue = "SHA-256",
+            showDefaultValue = Visibility.ALWAYS)
+    private String digestAlgorithm;
+
     @Option(names = { "-s", "--scenarios" }, description = "Location of scenarios.xml", paramLabel = "scenario.xml", required = true,
             converter = TypeConverter.ScenarioConverter.class)
     private List<ScenarioDefinition> scenarios;
@@ -20,6 +20,7 @@ import java.io.PrintWriter;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.fusesource.jansi.AnsiRenderer.Code;
@@ -27,7 +28,6 @@ import org.fusesource.jansi.AnsiRenderer.Code;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Configuration;
-import de.kosit.validationtool.api.Input;
 import de.kosit.validationtool.api.Result;
 import de.kosit.validationtool.api.XmlError;
 import de.kosit.validationtool.cmd.report.Grid;
@@ -48,9 +48,9 @@ import net.sf.saxon.s9api.Processor;
 @Slf4j
 class InternalCheck extends DefaultCheck {
 
-    private int checkAssertions = 0;
+    private final AtomicInteger checkAssertions = new AtomicInteger();
 
-    private int failedAssertions = 0;
+    private final AtomicInteger failedAssertions = new AtomicInteger();
 
     /**
      * Erzeugt eine neue Instanz mit der angegebenen Konfiguration.
@@ -112,18 +112,17 @@ class InternalCheck extends DefaultCheck {
     }
 
     /**
-     * Prüft die Prüflinge und gibt Informationen über etwaige Assertions aus.
+     * Prüft die Prüflinge und sammelt Informationen über etwaige Assertions.
      *
-     * @param input die Prüflinge
-     * @return false wenn es Assertion-Fehler gibt, sonst true
+     * @param bag die Informationssammlung zum Prüfling
+     * @return das Prüfergebnis
      */
     @Override
-    public Result checkInput(final Input input) {
-        final CheckAction.Bag bag = new CheckAction.Bag(input, createReport());
-        final Result result = runCheckInternal(bag);
+    protected Result runCheckInternal(final CheckAction.Bag bag) {
+        final Result result = super.runCheckInternal(bag);
         if (bag.getAssertionResult() != null) {
-            this.checkAssertions += bag.getAssertionResult().getObject();
-            this.failedAssertions += bag.getAssertionResult().getErrors().size();
+            this.checkAssertions.addAndGet(bag.getAssertionResult().getObject());
+            this.failedAssertions.addAndGet(bag.getAssertionResult().getErrors().size());
         }
         return result;
     }
@@ -138,30 +137,30 @@ class InternalCheck extends DefaultCheck {
     }
 
     private String createAssertionStatus() {
+        final int run = this.checkAssertions.get();
+        final int failed = this.failedAssertions.get();
         final Line line = new Line();
-        if (this.failedAssertions > 0) {
-            log.error("Assertion check failed.\n\nAssertions run: {}, Assertions failed: {}\n", this.checkAssertions,
-                    this.failedAssertions);
-            line.add(MessageFormat.format("Assertions run: {0}, Assertions failed: ", this.checkAssertions));
-            line.add(this.failedAssertions, Code.RED);
-        } else if (this.checkAssertions > 0) {
-            log.info("Assertion check successful.\n\nAssertions run: {}, Assertions failed: {}\n", this.checkAssertions,
-                    this.failedAssertions);
-            line.add(MessageFormat.format("Assertions run: {0}, Assertions failed: {1}", this.checkAssertions, this.failedAssertions));
+        if (failed > 0) {
+            log.error("Assertion check failed.\n\nAssertions run: {}, Assertions failed: {}\n", run, failed);
+            line.add(MessageFormat.format("Assertions run: {0}, Assertions failed: ", run));
+            line.add(failed, Code.RED);
+        } else if (run > 0) {
+            log.info("Assertion check successful.\n\nAssertions run: {}, Assertions failed: {}\n", run, failed);
+            line.add(MessageFormat.format("Assertions run: {0}, Assertions failed: {1}", run, failed));
         }
         return line.render(true, false);
     }
 
     @Override
     public boolean isSuccessful(final Map<String, Result> results) {
-        if (this.checkAssertions > 0) {
-            return this.failedAssertions == 0;
+        if (this.checkAssertions.get() > 0) {
+            return this.failedAssertions.get() == 0;
         }
         return super.isSuccessful(results);
     }
 
     public int getNotAcceptableCount(final Map<String, Result> results) {
-        return (int) (this.failedAssertions + results.values().stream().filter(e -> !e.isAcceptable()).count());
+        return (int) (this.failedAssertions.get() + results.values().stream().filter(e -> !e.isAcceptable()).count());
     }
 
 }
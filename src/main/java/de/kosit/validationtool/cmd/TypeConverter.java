@@ -29,6 +29,7 @@ import de.kosit.validationtool.cmd.CommandLineOptions.ScenarioDefinition;
 import de.kosit.validationtool.impl.ScenarioRepository;
 
 import picocli.CommandLine.ITypeConverter;
+import picocli.CommandLine.TypeConversionException;
 
 /**
  * Custom type converters for dealing with command line input.
@@ -94,4 +95,19 @@ class TypeConverter {
             return TypeConverter.convert(ScenarioDefinition.class, value);
         }
     }
+
+    /**
+     * Type converter for the number of parallel workers, rejecting values less than 1.
+     */
+    public static class ParallelismConverter implements ITypeConverter<Integer> {
+
+        @Override
+        public Integer convert(final String value) throws Exception {
+            final int parallelism = Integer.parseInt(value.trim());
+            if (parallelism < 1) {
+                throw new TypeConversionException("Number of parallel workers must be at least 1, but was " + parallelism);
+            }
+            return parallelism;
+        }
+    }
 }
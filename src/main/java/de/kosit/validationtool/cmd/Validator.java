@@ -28,15 +28,22 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.fusesource.jansi.AnsiRenderer.Code;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Configuration;
@@ -50,10 +57,13 @@ import de.kosit.validationtool.cmd.CommandLineOptions.ScenarioDefinition;
 import de.kosit.validationtool.cmd.assertions.Assertions;
 import de.kosit.validationtool.cmd.report.Line;
 import de.kosit.validationtool.daemon.Daemon;
+import de.kosit.validationtool.impl.CompiledArtifactCache;
 import de.kosit.validationtool.impl.ConversionService;
 import de.kosit.validationtool.impl.EngineInformation;
+import de.kosit.validationtool.impl.Futures;
 import de.kosit.validationtool.impl.Printer;
 import de.kosit.validationtool.impl.ScenarioRepository;
+import de.kosit.validationtool.impl.input.StreamHelper;
 import de.kosit.validationtool.impl.xml.ProcessorProvider;
 
 import net.sf.saxon.s9api.Processor;
@@ -67,6 +77,28 @@ import net.sf.saxon.s9api.Processor;
 @SuppressWarnings("squid:S3725")
 public class Validator {
 
+    /**
+     * Prints the processing progress every few seconds. Can be used by multiple worker threads.
+     */
+    @RequiredArgsConstructor
+    private static class Progress {
+
+        private final int total;
+
+        private final AtomicInteger processed = new AtomicInteger();
+
+        private final AtomicLong tick = new AtomicLong(System.currentTimeMillis());
+
+        void increment() {
+            final int count = this.processed.incrementAndGet();
+            final long last = this.tick.get();
+            final long now = System.currentTimeMillis();
+            if (((now - last) / 1000) > 5 && this.tick.compareAndSet(last, now)) {
+                Printer.writeOut("{0}/{1} objects processed", count, this.total);
+            }
+        }
+    }
+
     private Validator() {
         // hide
     }
@@ -123,6 +155,8 @@ public class Validator {
         final CommandLineOptions.DaemonOptions daemonOptions = cmd.getDaemonOptions();
         final Daemon validDaemon = new Daemon(daemonOptions.getHost(), daemonOptions.getPort(), determineThreads(daemonOptions));
         validDaemon.setGuiEnabled(!daemonOptions.isDisableGUI());
+        validDaemon.setSpeculative(daemonOptions.isSpeculative());
+        validDaemon.setDigestAlgorithm(determineDigestAlgorithm(cmd));
         Printer.writeOut("\nStarting daemon mode ...");
         validDaemon.startServer(ProcessorProvider.getProcessor(), configuration.toArray(new Configuration[configuration.size()]));
     }
@@ -154,18 +188,10 @@ public class Validator {
         }
         log.info("Setup completed in {}ms\n", System.currentTimeMillis() - start);
 
-        final Collection<Input> targets = determineTestTargets(cliOptions);
+        final Collection<Input> targets = determineTestTargets(cliOptions, determineDigestAlgorithm(cmd));
         start = System.currentTimeMillis();
-        final Map<String, Result> results = new HashMap<>();
         Printer.writeOut("\nProcessing of {0} objects started", targets.size());
-        long tick = System.currentTimeMillis();
-        for (final Input input : targets) {
-            results.put(input.getName(), check.checkInput(input));
-            if (((System.currentTimeMillis() - tick) / 1000) > 5) {
-                tick = System.currentTimeMillis();
-                Printer.writeOut("{0}/{1} objects processed", results.size(), targets.size());
-            }
-        }
+        final Map<String, Result> results = process(check, targets, cliOptions.getParallelism());
         final long processingTime = System.currentTimeMillis() - start;
         Printer.writeOut("Processing of {0} objects completed in {1}ms", targets.size(), processingTime);
 
@@ -174,6 +200,43 @@ public class Validator {
         return check.isSuccessful(results) ? ReturnValue.SUCCESS : ReturnValue.createFailed(check.getNotAcceptableCount(results));
     }
 
+    /**
+     * Checks all targets either sequentially or using a bounded pool of workers sharing the same {@link InternalCheck}
+     * instance. The results are kept in the order of the targets.
+     *
+     * @param check the check instance
+     * @param targets the targets to check
+     * @param parallelism number of workers
+     * @return the results by name of the target
+     */
+    private static Map<String, Result> process(final InternalCheck check, final Collection<Input> targets, final int parallelism) {
+        final Progress progress = new Progress(targets.size());
+        final Map<String, Result> results = new LinkedHashMap<>();
+        if (parallelism <= 1) {
+            for (final Input input : targets) {
+                results.put(input.getName(), check.checkInput(input));
+                progress.increment();
+            }
+            return results;
+        }
+        log.info("Processing with {} parallel workers", parallelism);
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            final List<CompletableFuture<Result>> futures = targets.stream().map(input -> CompletableFuture.supplyAsync(() -> {
+                final Result result = check.checkInput(input);
+                progress.increment();
+                return result;
+            }, executor)).collect(Collectors.toList());
+            final Iterator<Input> inputs = targets.iterator();
+            for (final CompletableFuture<Result> future : futures) {
+                results.put(inputs.next().getName(), Futures.join(future));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
     /**
      * @param cmd the Command Line Options
      *
@@ -187,14 +250,22 @@ public class Validator {
         final Map<String, Path> mappedRepos = repos.stream().collect(Collectors.toMap(Definition::getName, Definition::getPath));
         checkUnused(mappedScenarios, mappedRepos);
 
-        return mappedScenarios.entrySet().stream().map(e -> {
+        if (cmd.getArtifactCache() != null && !CompiledArtifactCache.isSupported(ProcessorProvider.getProcessor())) {
+            Printer.writeErr("The artifact cache requires Saxon-PE/EE. Option --artifact-cache will be ignored");
+        }
+        // the scenario files are loaded concurrently, reporting happens in order
+        final List<CompletableFuture<Configuration>> loading = mappedScenarios.entrySet().stream().map(e -> {
             assertFileExistance(e.getValue(), "scenario");
             final URI scenarioLocation = e.getValue().toUri();
             final URI repositoryLocation = findRepository(e.getKey(), mappedRepos);
 
             reportLoading(scenarioLocation, repositoryLocation);
-            final Configuration configuration = Configuration.load(scenarioLocation, repositoryLocation)
-                    .build(ProcessorProvider.getProcessor());
+            return CompletableFuture.supplyAsync(() -> Configuration.load(scenarioLocation, repositoryLocation)
+                    .setArtifactCache(cmd.getArtifactCache()).setLazyInitialization(cmd.isLazyInitialization()).setWarmUp(cmd.getWarmUp())
+                    .build(ProcessorProvider.getProcessor()));
+        }).collect(Collectors.toList());
+        return loading.stream().map(f -> {
+            final Configuration configuration = Futures.join(f);
             reportConfiguration(configuration);
             return configuration;
         }).collect(Collectors.toList());
@@ -249,8 +320,7 @@ public class Validator {
     private static Assertions loadAssertions(final Path p) {
         Assertions a = null;
         if (Files.exists(p)) {
-            final ConversionService c = new ConversionService();
-            c.initialize(de.kosit.validationtool.cmd.assertions.ObjectFactory.class.getPackage());
+            final ConversionService c = new ConversionService(de.kosit.validationtool.cmd.assertions.ObjectFactory.class.getPackage());
             a = c.readXml(p.toUri(), Assertions.class);
         }
         return a;
@@ -269,13 +339,20 @@ public class Validator {
         return dir;
     }
 
-    private static Collection<Input> determineTestTargets(final CommandLineOptions.CliOptions cmd) throws IOException {
+    private static String determineDigestAlgorithm(final CommandLineOptions cmd) {
+        // fail before processing any document, if the algorithm is not available
+        StreamHelper.createDigest(cmd.getDigestAlgorithm());
+        return cmd.getDigestAlgorithm();
+    }
+
+    private static Collection<Input> determineTestTargets(final CommandLineOptions.CliOptions cmd, final String digestAlgorithm)
+            throws IOException {
         final Collection<Input> targets = new ArrayList<>();
         if (cmd.getFiles() != null && !cmd.getFiles().isEmpty()) {
-            cmd.getFiles().forEach(e -> targets.addAll(determineTestTarget(e)));
+            cmd.getFiles().forEach(e -> targets.addAll(determineTestTarget(e, digestAlgorithm)));
         }
         if (isPiped()) {
-            targets.add(readFromPipe());
+            targets.add(readFromPipe(digestAlgorithm));
         }
         if (targets.isEmpty()) {
             throw new IllegalStateException("No test targets found. Nothing to check. Will quit now!");
@@ -289,25 +366,25 @@ public class Validator {
     }
 
     @SuppressWarnings("java:S4829") // sanitation is delegated to xml stack
-    private static Input readFromPipe() {
-        return InputFactory.read(System.in, "stdin");
+    private static Input readFromPipe(final String digestAlgorithm) {
+        return InputFactory.read(System.in, "stdin", digestAlgorithm);
     }
 
-    private static Collection<Input> determineTestTarget(final Path d) {
+    private static Collection<Input> determineTestTarget(final Path d, final String digestAlgorithm) {
         if (Files.isDirectory(d)) {
-            return listDirectoryTargets(d);
+            return listDirectoryTargets(d, digestAlgorithm);
         } else if (Files.exists(d)) {
-            return Collections.singleton(InputFactory.read(d));
+            return Collections.singleton(InputFactory.read(d, digestAlgorithm));
         }
         log.warn("The specified test target {} does not exist. Will be ignored", d);
         return Collections.emptyList();
 
     }
 
-    private static Collection<Input> listDirectoryTargets(final Path d) {
+    private static Collection<Input> listDirectoryTargets(final Path d, final String digestAlgorithm) {
         try ( final Stream<Path> stream = Files.list(d) ) {
-            return stream.filter(path -> path.toString().toLowerCase().endsWith(".xml")).map(InputFactory::read)
-                    .collect(Collectors.toList());
+            return stream.filter(path -> path.toString().toLowerCase().endsWith(".xml"))
+                    .map(path -> InputFactory.read(path, digestAlgorithm)).collect(Collectors.toList());
         } catch (final IOException e) {
             throw new IllegalStateException("IOException while list directory content. Can not determine test targets.", e);
         }
@@ -20,9 +20,21 @@ import static org.apache.commons.lang3.StringUtils.startsWith;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.xml.validation.Schema;
@@ -37,10 +49,13 @@ import de.kosit.validationtool.api.Configuration;
 import de.kosit.validationtool.api.InputFactory;
 import de.kosit.validationtool.api.ResolvingConfigurationStrategy;
 import de.kosit.validationtool.impl.CollectingErrorEventHandler;
+import de.kosit.validationtool.impl.CompiledArtifactCache;
 import de.kosit.validationtool.impl.ContentRepository;
 import de.kosit.validationtool.impl.ConversionService;
+import de.kosit.validationtool.impl.Futures;
 import de.kosit.validationtool.impl.ResolvingMode;
 import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.Scenario.Transformation;
 import de.kosit.validationtool.impl.SchemaProvider;
 import de.kosit.validationtool.impl.model.Result;
 import de.kosit.validationtool.impl.tasks.DocumentParseAction;
@@ -52,6 +67,7 @@ import de.kosit.validationtool.model.scenarios.Scenarios;
 
 import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.QName;
+import net.sf.saxon.s9api.XPathExecutable;
 import net.sf.saxon.s9api.XdmNode;
 import net.sf.saxon.s9api.XdmNodeKind;
 
@@ -86,6 +102,14 @@ public class ConfigurationLoader {
 
     protected ResolvingConfigurationStrategy resolvingConfigurationStrategy;
 
+    protected CompiledArtifactCache artifactCache;
+
+    protected Executor executor = ForkJoinPool.commonPool();
+
+    protected boolean lazyInitialization;
+
+    protected List<String> warmUp = Collections.emptyList();
+
     private static void checkVersion(final URI scenarioDefinition, final Processor processor) {
         try {
             final Result<XdmNode, XMLSyntaxError> result = new DocumentParseAction(processor)
@@ -124,28 +148,86 @@ public class ConfigurationLoader {
 
     }
 
-    private static List<Scenario> initializeScenarios(final Scenarios def, final ContentRepository contentRepository) {
-        return def.getScenario().stream().map(s -> initialize(s, contentRepository)).collect(Collectors.toList());
+    private List<Scenario> initializeScenarios(final Scenarios def, final ContentRepository contentRepository,
+            final Map<String, Long> compileTimes) {
+        final List<CompletableFuture<Scenario>> scenarios = def.getScenario().stream()
+                .map(s -> initialize(s, contentRepository, compileTimes)).collect(Collectors.toList());
+        return scenarios.stream().map(Futures::join).collect(Collectors.toList());
     }
 
-    private static Scenario initialize(final ScenarioType def, final ContentRepository repository) {
+    private CompletableFuture<Scenario> initialize(final ScenarioType def, final ContentRepository repository,
+            final Map<String, Long> compileTimes) {
+        final String name = def.getName();
+        final CompletableFuture<XPathExecutable> match = compile(name, "match", () -> repository.createMatchExecutable(def), compileTimes,
+                this.executor);
+        final CompletableFuture<XPathExecutable> accept = def.getAcceptMatch() != null
+                ? compile(name, "acceptMatch", () -> repository.createAccepptExecutable(def), compileTimes, this.executor)
+                : CompletableFuture.completedFuture(null);
         final Scenario s = new Scenario(def);
-        s.setMatchExecutable(repository.createMatchExecutable(def));
-        s.setSchema(repository.createSchema(def));
-        s.setSchematronValidations(repository.createSchematronTransformations(def));
-        if (def.getCreateReport() != null) {
-            s.setReportTransformation(repository.createReportTransformation(def));
-        } else {
-            log.warn("No report configured. Will provide an internal format as report!");
-            s.setReportTransformation(repository.createIdentityTransformation());
-        }
         s.setFactory(repository.getResolvingConfigurationStrategy());
         s.setUriResolver(repository.getResolver());
         s.setUnparsedTextURIResolver(repository.getUnparsedTextURIResolver());
-        if (def.getAcceptMatch() != null) {
-            s.setAcceptExecutable(repository.createAccepptExecutable(def));
+        final CompletableFuture<Void> artifacts;
+        if (this.lazyInitialization) {
+            // compiled on first use within the calling thread, which may be a thread of the executor itself
+            s.setInitializer(scenario -> Futures.join(compileArtifacts(scenario, def, repository, compileTimes, Runnable::run)));
+            artifacts = CompletableFuture.completedFuture(null);
+        } else {
+            artifacts = compileArtifacts(s, def, repository, compileTimes, this.executor);
         }
-        return s;
+        return CompletableFuture.allOf(match, accept, artifacts).thenApply(v -> {
+            s.setMatchExecutable(match.join());
+            s.setAcceptExecutable(accept.join());
+            return s;
+        });
+    }
+
+    private CompletableFuture<Void> compileArtifacts(final Scenario s, final ScenarioType def, final ContentRepository repository,
+            final Map<String, Long> compileTimes, final Executor compileExecutor) {
+        final String name = def.getName();
+        final CompletableFuture<Schema> schema = compile(name, "schema", () -> repository.createSchema(def), compileTimes, compileExecutor);
+        final List<CompletableFuture<Transformation>> schematrons = def.getValidateWithSchematron().stream().map(v -> compile(name,
+                v.getResource().getName(), () -> repository.createSchematronTransformation(v), compileTimes, compileExecutor))
+                .collect(Collectors.toList());
+        final CompletableFuture<Transformation> report;
+        if (def.getCreateReport() != null) {
+            report = compile(name, "report", () -> repository.createReportTransformation(def), compileTimes, compileExecutor);
+        } else {
+            log.warn("No report configured. Will provide an internal format as report!");
+            report = compile(name, "report", repository::createIdentityTransformation, compileTimes, compileExecutor);
+        }
+
+        final List<CompletableFuture<?>> all = new ArrayList<>(Arrays.asList(schema, report));
+        all.addAll(schematrons);
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            s.setSchema(schema.join());
+            s.setSchematronValidations(schematrons.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+            s.setReportTransformation(report.join());
+        });
+    }
+
+    private void warmUp(final List<Scenario> scenarios) {
+        final List<CompletableFuture<Void>> warmUps = this.warmUp.stream().map(name -> {
+            final Optional<Scenario> scenario = scenarios.stream().filter(s -> name.equals(s.getName())).findFirst();
+            if (!scenario.isPresent()) {
+                log.info("Scenario '{}' for warm up not found in {}", name, this.scenarioDefinition);
+            }
+            return scenario;
+        }).filter(Optional::isPresent).map(Optional::get).map(s -> CompletableFuture.runAsync(s::initialize, this.executor))
+                .collect(Collectors.toList());
+        warmUps.forEach(Futures::join);
+    }
+
+    private <T> CompletableFuture<T> compile(final String scenario, final String artifact, final Supplier<T> supplier,
+            final Map<String, Long> compileTimes, final Executor compileExecutor) {
+        return CompletableFuture.supplyAsync(() -> {
+            final long start = System.nanoTime();
+            final T result = supplier.get();
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Compiled {} of scenario '{}' in {} ms", artifact, scenario, millis);
+            compileTimes.put(scenario + "/" + artifact, millis);
+            return result;
+        }, compileExecutor);
     }
 
     URI getScenarioRepository() {
@@ -159,10 +241,17 @@ public class ConfigurationLoader {
     public Configuration build(final Processor processor) {
         final ResolvingConfigurationStrategy resolving = getResolvingConfigurationStrategy();
         final ContentRepository contentRepository = new ContentRepository(processor, resolving, getScenarioRepository());
+        contentRepository.setArtifactCache(this.artifactCache);
 
         final Scenarios def = loadScenarios(SchemaProvider.getScenarioSchema(), processor);
-        final List<Scenario> scenarios = initializeScenarios(def, contentRepository);
-        final Scenario fallbackScenario = createFallback(def, contentRepository);
+        final Map<String, Long> compileTimes = new ConcurrentSkipListMap<>();
+        final CompletableFuture<Scenario> fallback = compile(def.getNoScenarioReport().getResource().getName(), "report",
+                () -> createFallback(def, contentRepository), compileTimes, this.executor);
+        final List<Scenario> scenarios = initializeScenarios(def, contentRepository, compileTimes);
+        final Scenario fallbackScenario = Futures.join(fallback);
+        if (this.lazyInitialization) {
+            warmUp(scenarios);
+        }
         final DefaultConfiguration configuration = new DefaultConfiguration(scenarios, fallbackScenario);
         configuration.setAdditionalParameters(this.parameters);
         configuration.setAuthor(def.getAuthor());
@@ -171,6 +260,7 @@ public class ConfigurationLoader {
         configuration.setContentRepository(contentRepository);
         configuration.getAdditionalParameters().put(Keys.SCENARIOS_FILE, this.scenarioDefinition);
         configuration.getAdditionalParameters().put(Keys.SCENARIO_DEFINITION, def);
+        configuration.getAdditionalParameters().put(Keys.COMPILE_TIMES, compileTimes);
         return (configuration);
     }
 
@@ -218,6 +308,55 @@ public class ConfigurationLoader {
         return this;
     }
 
+    /**
+     * Sets the {@link Executor} used for compiling the scenario artifacts concurrently. Defaults to the common
+     * {@link ForkJoinPool}.
+     *
+     * @param executor the executor
+     * @return this
+     */
+    public ConfigurationLoader setExecutor(final Executor executor) {
+        this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+        return this;
+    }
+
+    /**
+     * Enables lazy initialization. Schema, schematron and report artifacts of a scenario are compiled, when the
+     * scenario is selected the first time. The match expressions are still compiled eagerly. Lazily compiled artifacts
+     * are compiled within the thread using the scenario, not within the configured {@link Executor}. Thus a bounded
+     * executor can not deadlock, even if checks are run by its own threads.
+     *
+     * @param lazy whether to compile lazily
+     * @return this
+     */
+    public ConfigurationLoader setLazyInitialization(final boolean lazy) {
+        this.lazyInitialization = lazy;
+        return this;
+    }
+
+    /**
+     * Names of scenarios which are compiled on startup in lazy mode.
+     *
+     * @param scenarioNames the scenario names
+     * @return this
+     */
+    public ConfigurationLoader setWarmUp(final Collection<String> scenarioNames) {
+        this.warmUp = scenarioNames != null ? new ArrayList<>(scenarioNames) : Collections.emptyList();
+        return this;
+    }
+
+    /**
+     * Enables an on-disk cache for compiled XSLT artifacts, keyed by the content of the stylesheets. Requires
+     * Saxon-PE/EE, the cache is ignored with a warning for Saxon-HE. See {@link CompiledArtifactCache} for limitations.
+     *
+     * @param directory the cache directory
+     * @return this
+     */
+    public ConfigurationLoader setArtifactCache(final Path directory) {
+        this.artifactCache = directory != null ? new CompiledArtifactCache(directory) : null;
+        return this;
+    }
+
     /**
      * Add a parameter to the configuration.
      * 
@@ -34,6 +34,12 @@ public final class Keys {
      */
     public static final String SCENARIO_DEFINITION = "scenario_definition";
 
+    /**
+     * The compile times of the scenario artifacts in milliseconds as {@link java.util.Map} keyed by scenario and
+     * artifact name. Only available with {@link ConfigurationLoader}.
+     */
+    public static final String COMPILE_TIMES = "compile_times";
+
     private Keys() {
         // hide
     }
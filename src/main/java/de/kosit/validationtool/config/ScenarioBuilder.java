@@ -78,6 +78,8 @@ public class ScenarioBuilder implements Builder<Scenario> {
 
     private String description;
 
+    private String rootElement;
+
     @Override
     public Result<Scenario, String> build(final ContentRepository repository) {
         final List<String> errors = new ArrayList<>();
@@ -128,6 +130,20 @@ public class ScenarioBuilder implements Builder<Scenario> {
         return this;
     }
 
+    /**
+     * Declare the root element of documents matched by this scenario, e.g. <code>inv:Invoice</code>. The prefix is
+     * resolved using the declared namespaces. This hint allows preselection of scenarios without evaluating the match
+     * expression of every scenario. It is only necessary, if the root element can not be derived from the match
+     * expression.
+     * 
+     * @param rootElement the qualified name of the root element
+     * @return this
+     */
+    public ScenarioBuilder rootElement(final String rootElement) {
+        this.rootElement = rootElement;
+        return this;
+    }
+
     /**
      * Add a preconfiguration {@link XPathExecutable} to compute acceptance for the scenario
      * 
@@ -289,6 +305,7 @@ public class ScenarioBuilder implements Builder<Scenario> {
         desc.getPOrOlOrUl()
                 .add(new ObjectFactory().createDescriptionTypeP(StringUtils.defaultIfBlank(this.description, DEFAULT_DESCRIPTION)));
         type.setDescription(desc);
+        type.setRootElement(StringUtils.trimToNull(this.rootElement));
         return type;
     }
 
@@ -19,6 +19,7 @@ package de.kosit.validationtool.daemon;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -32,7 +33,7 @@ import lombok.extern.slf4j.Slf4j;
 import de.kosit.validationtool.api.Check;
 import de.kosit.validationtool.api.InputFactory;
 import de.kosit.validationtool.api.Result;
-import de.kosit.validationtool.impl.input.SourceInput;
+import de.kosit.validationtool.impl.input.SpoolingInput;
 import de.kosit.validationtool.impl.input.StreamHelper;
 
 import net.sf.saxon.s9api.Processor;
@@ -53,6 +54,11 @@ class CheckHandler extends BaseHandler {
 
     private final Processor processor;
 
+    /**
+     * The digest algorithm for identifying the documents, the default of {@link InputFactory} if not specified.
+     */
+    private final String digestAlgorithm;
+
     /**
      * Methode, die eine gegebene Anforderung verarbeitet und eine entsprechende Antwort generiert
      *
@@ -68,10 +74,10 @@ class CheckHandler extends BaseHandler {
             if (requestMethod.equals("POST")) {
                 final BufferedInputStream buffered = StreamHelper.wrapPeekable(httpExchange.getRequestBody());
                 if (!isMultipartFormData(httpExchange) && isContentAvailable(httpExchange, buffered)) {
-                    final SourceInput serverInput = (SourceInput) InputFactory.read(buffered,
-                            resolveInputName(httpExchange.getRequestURI()));
-                    final Result result = this.implemenation.checkInput(serverInput);
-                    write(httpExchange, serialize(result), APPLICATION_XML, resolveStatus(result));
+                    try ( final SpoolingInput serverInput = spool(buffered, resolveInputName(httpExchange.getRequestURI())) ) {
+                        final Result result = this.implemenation.checkInput(serverInput);
+                        write(httpExchange, serialize(result), APPLICATION_XML, resolveStatus(result));
+                    }
                 } else {
                     error(httpExchange, HttpStatus.SC_BAD_REQUEST, "No content supplied");
                 }
@@ -85,6 +91,13 @@ class CheckHandler extends BaseHandler {
         }
     }
 
+    private SpoolingInput spool(final InputStream stream, final String name) {
+        if (this.digestAlgorithm == null) {
+            return (SpoolingInput) InputFactory.spool(stream, name);
+        }
+        return (SpoolingInput) InputFactory.spool(stream, name, this.digestAlgorithm, SpoolingInput.DEFAULT_HEAP_LIMIT);
+    }
+
     private static boolean isContentAvailable(final com.sun.net.httpserver.HttpExchange httpExchange, final BufferedInputStream buffered)
             throws IOException {
         final String length = httpExchange.getRequestHeaders().getFirst("Content-length");
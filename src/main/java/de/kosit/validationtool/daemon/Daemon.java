@@ -60,6 +60,10 @@ public class Daemon {
 
     private boolean guiEnabled = true;
 
+    private boolean speculative;
+
+    private String digestAlgorithm;
+
     /**
      * Create a new daemon.
      * 
@@ -81,10 +85,12 @@ public class Daemon {
     public void startServer(final Processor processor, final Configuration... config) {
         HttpServer server = null;
         try {
-            final ConversionService healthConverter = new ConversionService();
-            healthConverter.initialize(HealthType.class.getPackage());
-            final ConversionService converter = new ConversionService();
+            final ConversionService healthConverter = new ConversionService(HealthType.class.getPackage());
             final DefaultCheck check = new DefaultCheck(processor, config);
+            final ConversionService converter = check.getConversionService();
+            if (this.speculative) {
+                check.enableSpeculativeValidation(createExecutor());
+            }
 
             server = HttpServer.create(getSocket(), 0);
             server.createContext("/", createRootHandler(check, processor));
@@ -101,7 +107,7 @@ public class Daemon {
 
     private HttpHandler createRootHandler(final DefaultCheck check, final Processor processor) {
         final HttpHandler rootHandler;
-        final CheckHandler checkHandler = new CheckHandler(check, processor);
+        final CheckHandler checkHandler = new CheckHandler(check, processor, this.digestAlgorithm);
         if (this.guiEnabled) {
             final GuiHandler gui = new GuiHandler();
             rootHandler = new RoutingHandler(checkHandler, gui);
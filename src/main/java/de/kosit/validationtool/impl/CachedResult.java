@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import org.oclc.purl.dsdl.svrl.FailedAssert;
+import org.oclc.purl.dsdl.svrl.SchematronOutput;
+import org.w3c.dom.Document;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import de.kosit.validationtool.api.AcceptRecommendation;
+import de.kosit.validationtool.api.Result;
+import de.kosit.validationtool.api.XmlError;
+
+import net.sf.saxon.dom.NodeOverNodeInfo;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * A {@link Result} served from the cache of a {@link CachingCheck}. The report is the report of the original check,
+ * i.e. its timestamp and document reference refer to the original check and input. Results restored from the disk cache
+ * only carry the report and the evaluated flags, the detailed schema and schematron results are not available.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class CachedResult implements Result {
+
+    /** The result of the original check, null if restored from disk */
+    @Getter(AccessLevel.NONE)
+    private final Result original;
+
+    private final XdmNode report;
+
+    private final AcceptRecommendation acceptRecommendation;
+
+    private final boolean processingSuccessful;
+
+    private final boolean wellformed;
+
+    private final boolean schemaValid;
+
+    private final boolean schematronValid;
+
+    /** The time the result was stored in the cache */
+    private final Instant cachedAt;
+
+    CachedResult(final Result original, final Instant cachedAt) {
+        this(original, original.getReport(), original.getAcceptRecommendation(), original.isProcessingSuccessful(), original.isWellformed(),
+                original.isSchemaValid(), original.isSchematronValid(), cachedAt);
+    }
+
+    /**
+     * Always true, marks the result as served from the cache.
+     *
+     * @return true
+     */
+    public boolean isCached() {
+        return true;
+    }
+
+    @Override
+    public List<String> getProcessingErrors() {
+        return this.original != null ? this.original.getProcessingErrors() : Collections.emptyList();
+    }
+
+    @Override
+    public Document getReportDocument() {
+        return (Document) NodeOverNodeInfo.wrap(getReport().getUnderlyingNode());
+    }
+
+    @Override
+    public boolean isAcceptable() {
+        return isProcessingSuccessful() && AcceptRecommendation.ACCEPTABLE.equals(this.acceptRecommendation);
+    }
+
+    @Override
+    public List<XmlError> getSchemaViolations() {
+        return this.original != null ? this.original.getSchemaViolations() : Collections.emptyList();
+    }
+
+    @Override
+    public List<SchematronOutput> getSchematronResult() {
+        return this.original != null ? this.original.getSchematronResult() : Collections.emptyList();
+    }
+
+    @Override
+    public List<FailedAssert> getFailedAsserts() {
+        return this.original != null ? this.original.getFailedAsserts() : Collections.emptyList();
+    }
+}
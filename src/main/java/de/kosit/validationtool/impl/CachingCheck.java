@@ -0,0 +1,362 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.xml.transform.stream.StreamSource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.api.AcceptRecommendation;
+import de.kosit.validationtool.api.Check;
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.api.Result;
+import de.kosit.validationtool.impl.input.AbstractInput;
+import de.kosit.validationtool.impl.input.StreamHelper;
+import de.kosit.validationtool.model.scenarios.ResourceType;
+import de.kosit.validationtool.model.scenarios.ScenarioType;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.Serializer;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * A {@link Check} decorator caching the results of repeatedly checked documents, e.g. resubmitted invoices. Results are
+ * keyed by the hashcode of the {@link Input} (and its digest algorithm) and the identity of the configuration of the
+ * delegate. The in-memory cache is bounded and evicts the least recently used entries. Optionally, results are stored
+ * in a directory as a second tier, which survives restarts.
+ * 
+ * Repeats are answered with a {@link CachedResult} carrying the report of the original check. Note: the timestamp and
+ * the document reference within the report are those of the original check.
+ * 
+ * The hashcode must be known before checking. It is computed by an additional read of the input, unless it is already
+ * known (e.g. spooled streams). Inputs which can only be read once and have no precomputed hashcode and inputs
+ * identified by name only are not cached. Only successfully processed results are cached.
+ */
+@Slf4j
+public class CachingCheck implements Check {
+
+    private static final String REPORT_SUFFIX = ".xml";
+
+    private static final String META_SUFFIX = ".properties";
+
+    private static final String KEY_ALGORITHM = "SHA-256";
+
+    @Getter
+    private final Check delegate;
+
+    @Getter
+    private final int maxEntries;
+
+    /** The identity of the configuration of the delegate */
+    @Getter
+    private final String configurationId;
+
+    private final Map<String, CachedResult> cache;
+
+    private Processor processor;
+
+    @Getter
+    private Path directory;
+
+    /**
+     * Creates a new instance. The configuration identity is derived from the configurations of a {@link DefaultCheck}:
+     * the scenario definitions and the content of the schemas, Schematron and report stylesheets (including their
+     * dependencies) in the repository. Editing an artifact therefore invalidates the cached results, also on disk. The
+     * artifacts are read once on creation. Artifacts configured as compiled objects are identified by location only,
+     * use {@link #CachingCheck(Check, int, String)} with an explicit identity in this case.
+     *
+     * @param delegate the actual check implementation
+     * @param maxEntries the maximum number of results held in memory
+     */
+    public CachingCheck(final Check delegate, final int maxEntries) {
+        this(delegate, maxEntries, identify(delegate));
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the actual check implementation
+     * @param maxEntries the maximum number of results held in memory
+     * @param configurationId a stable identity of the configuration of the delegate
+     */
+    public CachingCheck(final Check delegate, final int maxEntries, final String configurationId) {
+        if (delegate == null || configurationId == null) {
+            throw new IllegalArgumentException("Must supply a check and a configuration identity");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(String.format("Invalid cache size %s", maxEntries));
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.configurationId = configurationId;
+        this.cache = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResult> eldest) {
+                return size() > CachingCheck.this.maxEntries;
+            }
+        };
+    }
+
+    private static String identify(final Check delegate) {
+        if (delegate == null) {
+            return null;
+        }
+        if (delegate instanceof DefaultCheck) {
+            final MessageDigest digest = StreamHelper.createDigest(KEY_ALGORITHM);
+            update(digest, EngineInformation.getVersion());
+            ((DefaultCheck) delegate).getConfiguration().forEach(c -> identify(digest, c));
+            return toHex(digest.digest());
+        }
+        return delegate.getClass().getName() + "@" + System.identityHashCode(delegate);
+    }
+
+    private static void identify(final MessageDigest digest, final Configuration configuration) {
+        update(digest, configuration.getName());
+        update(digest, configuration.getDate());
+        update(digest, configuration.getAuthor());
+        final ContentRepository repository = configuration.getContentRepository();
+        final List<Scenario> scenarios = new ArrayList<>(configuration.getScenarios());
+        scenarios.add(configuration.getFallbackScenario());
+        for (final Scenario scenario : scenarios) {
+            final ScenarioType definition = scenario.getConfiguration();
+            update(digest, definition.getName());
+            update(digest, definition.getMatch());
+            update(digest, definition.getAcceptMatch());
+            definition.getNamespace().forEach(ns -> update(digest, ns.getPrefix() + "=" + ns.getValue()));
+            if (definition.getValidateWithXmlSchema() != null) {
+                definition.getValidateWithXmlSchema().getResource().forEach(r -> update(digest, repository, r));
+            }
+            definition.getValidateWithSchematron().forEach(v -> update(digest, repository, v.getResource()));
+            if (definition.getCreateReport() != null) {
+                update(digest, repository, definition.getCreateReport().getResource());
+            }
+        }
+    }
+
+    private static void update(final MessageDigest digest, final ContentRepository repository, final ResourceType resource) {
+        update(digest, resource.getLocation());
+        update(digest, repository.computeContentHash(resource.getLocation()));
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Enables the disk tier. Results are stored in the given directory and restored, if not cached in memory. The disk
+     * tier is not bounded.
+     *
+     * @param processor the processor for restoring reports
+     * @param directory the directory
+     */
+    public void enableDiskCache(final Processor processor, final Path directory) {
+        if (processor == null || directory == null) {
+            throw new IllegalArgumentException("Must supply a processor and a directory");
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Can not create cache directory %s", directory), e);
+        }
+        this.processor = processor;
+        this.directory = directory;
+    }
+
+    @Override
+    public Result checkInput(final Input input) {
+        final String key = isCacheable(input) ? createKey(input) : null;
+        if (key == null) {
+            return this.delegate.checkInput(input);
+        }
+        final CachedResult cached = lookup(key);
+        if (cached != null) {
+            log.info("Using cached result for {}", input.getName());
+            return cached;
+        }
+        final Result result = this.delegate.checkInput(input);
+        if (result.isProcessingSuccessful() && result.getReport() != null) {
+            store(key, new CachedResult(result, Instant.now()));
+        }
+        return result;
+    }
+
+    private static boolean isCacheable(final Input input) {
+        if (InputFactory.PSEUDO_NAME_ALGORITHM.equals(input.getDigestAlgorithm())) {
+            return false;
+        }
+        if (input instanceof AbstractInput && !((AbstractInput) input).isHashcodeComputed()) {
+            // computing the hashcode beforehand must not consume the input
+            return ((AbstractInput) input).supportsMultipleReads();
+        }
+        return input.getHashCode() != null;
+    }
+
+    private String createKey(final Input input) {
+        final byte[] hashCode;
+        try {
+            hashCode = input instanceof AbstractInput ? StreamHelper.precomputeHashcode((AbstractInput) input) : input.getHashCode();
+        } catch (final IOException | IllegalStateException e) {
+            log.warn("Can not compute hashcode of {}, result is not cached", input.getName(), e);
+            return null;
+        }
+        final MessageDigest digest = StreamHelper.createDigest(KEY_ALGORITHM);
+        update(digest, this.configurationId);
+        update(digest, input.getDigestAlgorithm().toUpperCase(Locale.ROOT));
+        digest.update(hashCode);
+        return toHex(digest.digest());
+    }
+
+    private CachedResult lookup(final String key) {
+        synchronized (this.cache) {
+            final CachedResult cached = this.cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final CachedResult restored = restore(key);
+        if (restored != null) {
+            synchronized (this.cache) {
+                this.cache.put(key, restored);
+            }
+        }
+        return restored;
+    }
+
+    private void store(final String key, final CachedResult result) {
+        synchronized (this.cache) {
+            this.cache.put(key, result);
+        }
+        if (this.directory != null) {
+            write(key, result);
+        }
+    }
+
+    private void write(final String key, final CachedResult result) {
+        final Properties meta = new Properties();
+        meta.setProperty("acceptRecommendation", result.getAcceptRecommendation().name());
+        meta.setProperty("wellformed", String.valueOf(result.isWellformed()));
+        meta.setProperty("schemaValid", String.valueOf(result.isSchemaValid()));
+        meta.setProperty("schematronValid", String.valueOf(result.isSchematronValid()));
+        meta.setProperty("cachedAt", result.getCachedAt().toString());
+        Path report = null;
+        Path properties = null;
+        try {
+            report = Files.createTempFile(this.directory, key, REPORT_SUFFIX);
+            try ( final OutputStream out = Files.newOutputStream(report) ) {
+                final Serializer serializer = this.processor.newSerializer(out);
+                serializer.serializeNode(result.getReport());
+            }
+            properties = Files.createTempFile(this.directory, key, META_SUFFIX);
+            try ( final OutputStream out = Files.newOutputStream(properties) ) {
+                meta.store(out, null);
+            }
+            // the meta data marks a complete entry
+            Files.move(report, this.directory.resolve(key + REPORT_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(properties, this.directory.resolve(key + META_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException | SaxonApiException e) {
+            log.warn("Can not write cached result {} to {}", key, this.directory, e);
+        } finally {
+            // temporary files are left only on errors
+            deleteQuietly(report);
+            deleteQuietly(properties);
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                log.debug("Can not delete temporary file {}", file, e);
+            }
+        }
+    }
+
+    private CachedResult restore(final String key) {
+        if (this.directory == null) {
+            return null;
+        }
+        final Path properties = this.directory.resolve(key + META_SUFFIX);
+        final Path report = this.directory.resolve(key + REPORT_SUFFIX);
+        if (!Files.exists(properties) || !Files.exists(report)) {
+            return null;
+        }
+        try ( final InputStream in = Files.newInputStream(properties) ) {
+            final Properties meta = new Properties();
+            meta.load(in);
+            final XdmNode node = this.processor.newDocumentBuilder().build(new StreamSource(report.toFile()));
+            return new CachedResult(null, node, AcceptRecommendation.valueOf(meta.getProperty("acceptRecommendation")), true,
+                    Boolean.parseBoolean(meta.getProperty("wellformed")), Boolean.parseBoolean(meta.getProperty("schemaValid")),
+                    Boolean.parseBoolean(meta.getProperty("schematronValid")), Instant.parse(meta.getProperty("cachedAt")));
+        } catch (final IOException | SaxonApiException | RuntimeException e) {
+            log.warn("Can not restore cached result {} from {}", key, this.directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * The number of results cached in memory.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (this.cache) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * Removes all results cached in memory.
+     */
+    public void clear() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+}
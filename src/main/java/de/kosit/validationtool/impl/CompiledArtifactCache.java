@@ -0,0 +1,354 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.impl.input.StreamHelper;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XsltCompiler;
+import net.sf.saxon.s9api.XsltExecutable;
+
+/**
+ * On-disk cache for compiled XSLT artifacts (Saxon SEF export), keyed by a content hash of the stylesheet, its
+ * dependencies and the Saxon version. Dependencies are collected statically: included and imported modules
+ * (recursively), imported schemas and resources loaded with a literal URI via <code>document()</code>,
+ * <code>doc()</code> or <code>unparsed-text()</code>. Resources loaded with a computed URI can not be determined
+ * statically and do not invalidate cached artifacts. Exporting requires Saxon-PE/EE. Saxon-HE is not supported: it can
+ * not export and the key includes the edition, so no artifact could ever be found (see {@link #isSupported}). Compiled
+ * XML schemas can not be serialized with JAXP and are therefore not cached.
+ */
+@Slf4j
+public class CompiledArtifactCache {
+
+    private static final String EXTENSION = ".sef";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final String XSL_NS = "http://www.w3.org/1999/XSL/Transform";
+
+    private static final String XSD_NS = "http://www.w3.org/2001/XMLSchema";
+
+    private static final Pattern RESOURCE_CALL = Pattern
+            .compile("\\b(?:document|doc|unparsed-text|unparsed-text-lines|json-doc)\\(\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*[,)]");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    @Getter
+    private final Path directory;
+
+    private volatile boolean exportSupported = true;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param directory the cache directory; created if necessary
+     */
+    public CompiledArtifactCache(final Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Cache directory must be specified");
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException(String.format("Can not create cache directory %s", directory), e);
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * Checks whether the cache can be used with the given processor, i.e. the edition supports exporting compiled
+     * stylesheets.
+     *
+     * @param processor the processor used for compilation
+     * @return true if artifacts can be stored and loaded
+     */
+    public static boolean isSupported(final Processor processor) {
+        return !"HE".equals(processor.getSaxonEdition());
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
+    /**
+     * Computes the cache key for the given stylesheet content without dependencies.
+     *
+     * @param processor the processor used for compilation
+     * @param content the stylesheet content
+     * @return the key
+     */
+    public static String computeKey(final Processor processor, final byte[] content) {
+        return computeKey(processor, content, Collections.emptyMap());
+    }
+
+    /**
+     * Computes the cache key for the given stylesheet content and its dependencies.
+     *
+     * @param processor the processor used for compilation
+     * @param content the stylesheet content
+     * @param dependencies the content hashes of the dependencies by resolved URI, see
+     *            {@link #collectDependencies(byte[], String, URIResolver)}
+     * @return the key
+     */
+    public static String computeKey(final Processor processor, final byte[] content, final Map<String, byte[]> dependencies) {
+        final MessageDigest digest = StreamHelper.createDigest(HASH_ALGORITHM);
+        digest.update(processor.getSaxonEdition().getBytes(StandardCharsets.UTF_8));
+        digest.update(processor.getSaxonProductVersion().getBytes(StandardCharsets.UTF_8));
+        digest.update(content);
+        new TreeMap<>(dependencies).forEach((uri, hash) -> {
+            digest.update((byte) 0);
+            digest.update(uri.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(hash);
+        });
+        return String.format("%064x", new BigInteger(1, digest.digest()));
+    }
+
+    /**
+     * Collects the dependencies of a stylesheet, see class description. Included, imported and redefined modules of XML
+     * schemas are collected as well.
+     *
+     * @param content the stylesheet or schema content
+     * @param systemId the system id of the stylesheet or schema, used as base uri
+     * @param resolver the resolver used for compilation, optional
+     * @return the content hashes of the dependencies by resolved URI
+     */
+    public static Map<String, byte[]> collectDependencies(final byte[] content, final String systemId, final URIResolver resolver) {
+        final Map<String, byte[]> dependencies = new TreeMap<>();
+        collectDependencies(content, systemId, resolver, dependencies);
+        return dependencies;
+    }
+
+    private static void collectDependencies(final byte[] content, final String systemId, final URIResolver resolver,
+            final Map<String, byte[]> dependencies) {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(content));
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                final boolean xsl = XSL_NS.equals(reader.getNamespaceURI());
+                final boolean xsd = XSD_NS.equals(reader.getNamespaceURI());
+                final String localName = reader.getLocalName();
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    final String name = reader.getAttributeLocalName(i);
+                    final String value = reader.getAttributeValue(i);
+                    if (xsl && "href".equals(name) && ("include".equals(localName) || "import".equals(localName))) {
+                        addDependency(value, systemId, resolver, dependencies, true);
+                    } else if (xsl && "schema-location".equals(name) && "import-schema".equals(localName)) {
+                        addDependency(value, systemId, resolver, dependencies, false);
+                    } else if (xsd && "schemaLocation".equals(name) && isSchemaComposition(localName)) {
+                        addDependency(value, systemId, resolver, dependencies, true);
+                    } else {
+                        final Matcher matcher = RESOURCE_CALL.matcher(value);
+                        while (matcher.find()) {
+                            final String href = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                            addDependency(href, systemId, resolver, dependencies, false);
+                        }
+                    }
+                }
+            }
+        } catch (final XMLStreamException e) {
+            // the compiler reports the error
+            log.debug("Can not determine dependencies of {}", systemId, e);
+        } finally {
+            close(reader);
+        }
+    }
+
+    private static boolean isSchemaComposition(final String localName) {
+        return "include".equals(localName) || "import".equals(localName) || "redefine".equals(localName) || "override".equals(localName);
+    }
+
+    private static void addDependency(final String href, final String base, final URIResolver resolver,
+            final Map<String, byte[]> dependencies, final boolean recursive) {
+        if (href.isEmpty()) {
+            // the stylesheet itself
+            return;
+        }
+        try {
+            final Source source = resolve(href, base, resolver);
+            final String uri = source.getSystemId();
+            if (dependencies.containsKey(uri)) {
+                close(source);
+                return;
+            }
+            final byte[] content = readContent(source);
+            dependencies.put(uri, StreamHelper.createDigest(HASH_ALGORITHM).digest(content));
+            if (recursive) {
+                collectDependencies(content, uri, resolver, dependencies);
+            }
+        } catch (final TransformerException | IllegalArgumentException | IllegalStateException e) {
+            // the unresolvable reference is part of the key nonetheless
+            log.debug("Can not resolve dependency {} of {}", href, base, e);
+            dependencies.putIfAbsent(base + " -> " + href, new byte[0]);
+        }
+    }
+
+    private static Source resolve(final String href, final String base, final URIResolver resolver) throws TransformerException {
+        final Source source = resolver != null ? resolver.resolve(href, base) : null;
+        if (source != null && source.getSystemId() != null) {
+            return source;
+        }
+        close(source);
+        final URI uri = base != null ? URI.create(base).resolve(href) : URI.create(href);
+        return new StreamSource(uri.toString());
+    }
+
+    /**
+     * Reads the content of a source and closes it.
+     *
+     * @param source the source
+     * @return the content
+     */
+    static byte[] readContent(final Source source) {
+        try {
+            if (source instanceof StreamSource && ((StreamSource) source).getInputStream() != null) {
+                try ( final InputStream in = ((StreamSource) source).getInputStream() ) {
+                    return IOUtils.toByteArray(in);
+                }
+            }
+            try ( final InputStream in = new URL(source.getSystemId()).openStream() ) {
+                return IOUtils.toByteArray(in);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Can not read content of " + source.getSystemId(), e);
+        }
+    }
+
+    private static void close(final Source source) {
+        if (source instanceof StreamSource) {
+            IOUtils.closeQuietly(((StreamSource) source).getInputStream());
+            IOUtils.closeQuietly(((StreamSource) source).getReader());
+        }
+    }
+
+    private static void close(final XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (final XMLStreamException e) {
+                log.debug("Can not close reader", e);
+            }
+        }
+    }
+
+    /**
+     * Loads a cached artifact.
+     *
+     * @param compiler the compiler to use
+     * @param key the cache key
+     * @return the executable, if cached and loadable
+     */
+    public Optional<XsltExecutable> load(final XsltCompiler compiler, final String key) {
+        final Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            final XsltExecutable executable = compiler
+                    .loadExecutablePackage(new StreamSource(new ByteArrayInputStream(Files.readAllBytes(file)), file.toUri().toString()));
+            log.info("Loaded compiled artifact {}", file);
+            return Optional.of(executable);
+        } catch (final IOException | SaxonApiException e) {
+            log.warn("Can not load compiled artifact {}. Compiling from source", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores an artifact, if the edition of the processor supports exporting.
+     *
+     * @param executable the executable
+     * @param key the cache key
+     */
+    public void store(final XsltExecutable executable, final String key) {
+        if (!this.exportSupported) {
+            return;
+        }
+        final Path file = resolve(key);
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(this.directory, key, ".tmp");
+            try ( final OutputStream out = Files.newOutputStream(tmp) ) {
+                executable.export(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Stored compiled artifact {}", file);
+        } catch (final SaxonApiException e) {
+            this.exportSupported = false;
+            log.info("Compiled artifacts can not be stored: {}", e.getMessage());
+        } catch (final IOException e) {
+            log.warn("Can not store compiled artifact {}", file, e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    private Path resolve(final String key) {
+        return this.directory.resolve(key + EXTENSION);
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                log.debug("Can not delete temporary file {}", file, e);
+            }
+        }
+    }
+}
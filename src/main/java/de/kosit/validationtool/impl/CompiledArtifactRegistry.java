@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+import net.sf.saxon.s9api.Processor;
+
+/**
+ * Interning registry for compiled artifacts ({@link net.sf.saxon.s9api.XsltExecutable XSLT executables} and
+ * {@link javax.xml.validation.Schema schemas}) of a single {@link Processor}. Scenarios and configurations referencing
+ * the same resolved resources with the same resolving configuration share one compiled instance. Artifacts are only
+ * weakly referenced, they are released with the last scenario using them.
+ */
+@Slf4j
+public class CompiledArtifactRegistry {
+
+    private static final Map<Processor, CompiledArtifactRegistry> REGISTRIES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Identifies a compiled artifact. The resolving strategy and the resolver are compared by their own
+     * <code>equals</code> implementation, i.e. by identity unless they define a value based equality. Thus differently
+     * configured instances of the same class do not share artifacts.
+     */
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    static class Key {
+
+        private final String type;
+
+        private final List<String> resolvedUris;
+
+        private final Object strategy;
+
+        private final Object resolver;
+    }
+
+    private static class Entry {
+
+        private WeakReference<Object> artifact;
+
+        boolean isReleased() {
+            return this.artifact != null && this.artifact.get() == null;
+        }
+    }
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Returns the registry of the given {@link Processor}.
+     *
+     * @param processor the processor
+     * @return the registry
+     */
+    public static CompiledArtifactRegistry of(final Processor processor) {
+        return REGISTRIES.computeIfAbsent(processor, p -> new CompiledArtifactRegistry());
+    }
+
+    /**
+     * Returns the interned artifact for the key or compiles it. Concurrent requests for the same key are compiled only
+     * once.
+     *
+     * @param key the key
+     * @param compiler the compiler
+     * @param <T> the type of the artifact
+     * @return the compiled artifact
+     */
+    @SuppressWarnings("unchecked")
+    <T> T intern(final Key key, final Supplier<T> compiler) {
+        final Entry entry = this.entries.computeIfAbsent(key, k -> new Entry());
+        synchronized (entry) {
+            final Object existing = entry.artifact != null ? entry.artifact.get() : null;
+            if (existing != null) {
+                this.hits.incrementAndGet();
+                log.debug("Reusing compiled artifact {}", key);
+                return (T) existing;
+            }
+            this.misses.incrementAndGet();
+            // keys of released artifacts would retain their resolvers
+            this.entries.values().removeIf(e -> e != entry && e.isReleased());
+            final T artifact = compiler.get();
+            entry.artifact = new WeakReference<>(artifact);
+            return artifact;
+        }
+    }
+
+    /**
+     * Number of requests served by an existing artifact.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Number of requests which required compilation.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+}
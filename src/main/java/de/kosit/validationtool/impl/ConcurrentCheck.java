@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+import org.w3c.dom.Document;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.api.Check;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.Result;
+
+/**
+ * A {@link Check} decorator which processes batches of {@link Input Inputs} concurrently using the supplied
+ * {@link Executor}. The delegate must be threadsafe, e.g. a {@link DefaultCheck}.
+ * 
+ * The number of inputs in progress at the same time is limited by the parallelism level. Further inputs are not
+ * submitted before a running check has finished. So only a bounded number of documents is parsed and held in memory,
+ * regardless of the size of the batch. The results are returned in the order of the inputs.
+ */
+@Slf4j
+public class ConcurrentCheck implements Check {
+
+    @Getter
+    private final Check delegate;
+
+    private final Executor executor;
+
+    @Getter
+    private final int parallelism;
+
+    /**
+     * Creates a new instance using the number of available processors as parallelism level.
+     *
+     * @param delegate the actual (threadsafe) check implementation
+     * @param executor the executor running the checks
+     */
+    public ConcurrentCheck(final Check delegate, final Executor executor) {
+        this(delegate, executor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param delegate the actual (threadsafe) check implementation
+     * @param executor the executor running the checks
+     * @param parallelism the maximum number of inputs checked at the same time
+     */
+    public ConcurrentCheck(final Check delegate, final Executor executor, final int parallelism) {
+        if (delegate == null || executor == null) {
+            throw new IllegalArgumentException("Must supply a check and an executor");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Invalid parallelism level %s", parallelism));
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public Result checkInput(final Input input) {
+        return this.delegate.checkInput(input);
+    }
+
+    @Override
+    public CompletionStage<Result> checkInputAsync(final Input input) {
+        return this.delegate.checkInputAsync(input, this.executor);
+    }
+
+    @Override
+    public CompletionStage<Result> checkInputAsync(final Input input, final Executor executor) {
+        return this.delegate.checkInputAsync(input, executor);
+    }
+
+    /**
+     * Checks the {@link Input Inputs} concurrently. This method blocks until all inputs are processed.
+     *
+     * @param input list of xml {@link Input Inputs}
+     * @return list of {@link Result} in the order of the inputs
+     */
+    @Override
+    public List<Result> checkInput(final List<Input> input) {
+        final Semaphore permits = new Semaphore(this.parallelism);
+        final List<CompletableFuture<Result>> futures = new ArrayList<>(input.size());
+        for (final Input i : input) {
+            acquire(permits);
+            try {
+                futures.add(CompletableFuture.supplyAsync(() -> this.delegate.checkInput(i), this.executor)
+                        .whenComplete((r, e) -> permits.release()));
+            } catch (final RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        return futures.stream().map(ConcurrentCheck::await).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks the {@link Input Inputs} concurrently. This method blocks until all inputs are processed.
+     *
+     * @param input list of xml {@link Input Inputs}
+     * @return list of result-{@link Document Documents} (readonly) in the order of the inputs
+     */
+    @Override
+    public List<Document> check(final List<Input> input) {
+        return checkInput(input).stream().map(Result::getReportDocument).collect(Collectors.toList());
+    }
+
+    private static void acquire(final Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free worker", e);
+        }
+    }
+
+    private static Result await(final CompletableFuture<Result> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            log.error("Error checking input", e.getCause());
+            throw Futures.unwrap(e);
+        }
+    }
+}
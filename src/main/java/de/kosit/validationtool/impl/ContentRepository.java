@@ -16,15 +16,20 @@
 
 package de.kosit.validationtool.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import javax.xml.transform.Source;
@@ -34,6 +39,7 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.xml.sax.SAXException;
 
@@ -76,11 +82,17 @@ public class ContentRepository {
 
     private final UnparsedTextURIResolver unparsedTextURIResolver;
 
-    private final SchemaFactory schemaFactory;
-
     @Getter
     private final ResolvingConfigurationStrategy resolvingConfigurationStrategy;
 
+    private final CompiledArtifactRegistry artifactRegistry;
+
+    /**
+     * Optionaler Cache für kompilierte XSLT Artefakte.
+     */
+    @Getter
+    private CompiledArtifactCache artifactCache;
+
     /**
      * Creates a new {@link ContentRepository} based on configured security and resolving strategy and the specified
      * repository location.
@@ -92,9 +104,24 @@ public class ContentRepository {
         this.repository = repository;
         this.resolvingConfigurationStrategy = strategy;
         this.processor = processor;
+        this.artifactRegistry = CompiledArtifactRegistry.of(processor);
         this.resolver = this.resolvingConfigurationStrategy.createResolver(repository);
         this.unparsedTextURIResolver = this.resolvingConfigurationStrategy.createUnparsedTextURIResolver(repository);
-        this.schemaFactory = this.resolvingConfigurationStrategy.createSchemaFactory();
+    }
+
+    /**
+     * Setzt den Cache für kompilierte XSLT Artefakte. Der Cache wird ignoriert, wenn die Saxon Edition keinen Export
+     * unterstützt (HE).
+     *
+     * @param artifactCache der Cache, optional
+     */
+    public void setArtifactCache(final CompiledArtifactCache artifactCache) {
+        if (artifactCache != null && !CompiledArtifactCache.isSupported(getProcessor())) {
+            log.warn("Compiled artifact cache is not supported by Saxon-{} and will be ignored", getProcessor().getSaxonEdition());
+            this.artifactCache = null;
+            return;
+        }
+        this.artifactCache = artifactCache;
     }
 
     @SuppressWarnings("squid:S2095")
@@ -107,9 +134,15 @@ public class ContentRepository {
     }
 
     private Schema createSchema(final Source[] schemaSources) {
+        return intern("xsd", schemaSources, () -> compileSchema(schemaSources));
+    }
+
+    private Schema compileSchema(final Source[] schemaSources) {
         try {
-            this.schemaFactory.setResourceResolver(null);
-            return this.schemaFactory.newSchema(schemaSources);
+            // SchemaFactory is not thread-safe, schemas may be compiled concurrently
+            final SchemaFactory schemaFactory = this.resolvingConfigurationStrategy.createSchemaFactory();
+            schemaFactory.setResourceResolver(null);
+            return schemaFactory.newSchema(schemaSources);
         } catch (final SAXException e) {
             throw new IllegalArgumentException("Can not load schema from sources " + schemaSources[0].getSystemId(), e);
         }
@@ -123,6 +156,11 @@ public class ContentRepository {
      */
     public XsltExecutable loadXsltScript(final URI uri) {
         log.info("Loading XSLT script from  {}", uri);
+        final Source source = resolveInRepository(uri);
+        return intern("xslt", new Source[] { source }, () -> compileXsltScript(uri, source));
+    }
+
+    private XsltExecutable compileXsltScript(final URI uri, final Source source) {
         final XsltCompiler xsltCompiler = getProcessor().newXsltCompiler();
         final CollectingErrorEventHandler listener = new CollectingErrorEventHandler();
         try {
@@ -132,7 +170,10 @@ public class ContentRepository {
                 xsltCompiler.setURIResolver(getResolver());
             }
 
-            return xsltCompiler.compile(resolveInRepository(uri));
+            if (this.artifactCache == null) {
+                return xsltCompiler.compile(source);
+            }
+            return loadCached(xsltCompiler, source);
         } catch (final SaxonApiException e) {
             listener.getErrors().forEach(event -> event.log(log));
             throw new IllegalStateException("Can not compile xslt executable for uri " + uri, e);
@@ -144,6 +185,48 @@ public class ContentRepository {
         }
     }
 
+    /**
+     * Liefert ein bereits kompiliertes Artefakt für die gleichen aufgelösten Ressourcen und die gleiche
+     * Resolving-Konfiguration oder kompiliert es.
+     */
+    private <T> T intern(final String type, final Source[] sources, final Supplier<T> compiler) {
+        final List<String> uris = Arrays.stream(sources).map(Source::getSystemId).collect(Collectors.toList());
+        if (uris.contains(null)) {
+            // no identity
+            return compiler.get();
+        }
+        final AtomicBoolean compiled = new AtomicBoolean();
+        final CompiledArtifactRegistry.Key key = new CompiledArtifactRegistry.Key(type, uris, this.resolvingConfigurationStrategy,
+                this.resolver);
+        final T artifact = this.artifactRegistry.intern(key, () -> {
+            compiled.set(true);
+            return compiler.get();
+        });
+        if (!compiled.get()) {
+            Arrays.stream(sources).forEach(ContentRepository::close);
+        }
+        return artifact;
+    }
+
+    private static void close(final Source source) {
+        if (source instanceof StreamSource && ((StreamSource) source).getInputStream() != null) {
+            IOUtils.closeQuietly(((StreamSource) source).getInputStream());
+        }
+    }
+
+    private XsltExecutable loadCached(final XsltCompiler xsltCompiler, final Source source) throws SaxonApiException {
+        final byte[] content = CompiledArtifactCache.readContent(source);
+        final String key = CompiledArtifactCache.computeKey(getProcessor(), content,
+                CompiledArtifactCache.collectDependencies(content, source.getSystemId(), getResolver()));
+        final Optional<XsltExecutable> cached = this.artifactCache.load(xsltCompiler, key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        final XsltExecutable executable = xsltCompiler.compile(new StreamSource(new ByteArrayInputStream(content), source.getSystemId()));
+        this.artifactCache.store(executable, key);
+        return executable;
+    }
+
     /**
      * Erzeugt ein Schema-Objekt auf Basis der übergebenen URL.
      *
@@ -198,6 +281,26 @@ public class ContentRepository {
         }
     }
 
+    /**
+     * Computes a hash of the content of an artifact in this repository and of its dependencies, see
+     * {@link CompiledArtifactCache#collectDependencies(byte[], String, URIResolver)}. Artifacts which can not be read,
+     * e.g. configured as compiled objects, are identified by their location only.
+     *
+     * @param location the location of the artifact
+     * @return the hash
+     */
+    public String computeContentHash(final String location) {
+        try {
+            final Source source = resolveInRepository(URI.create(location));
+            final byte[] content = CompiledArtifactCache.readContent(source);
+            return CompiledArtifactCache.computeKey(getProcessor(), content,
+                    CompiledArtifactCache.collectDependencies(content, source.getSystemId(), this.resolver));
+        } catch (final IllegalArgumentException | IllegalStateException e) {
+            log.debug("Can not read artifact {}", location, e);
+            return location;
+        }
+    }
+
     /**
      * Erzeugt einen [@link XPathExecutable} auf Basis der angegebenen Informationen.
      * 
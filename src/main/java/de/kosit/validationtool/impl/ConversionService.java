@@ -22,7 +22,11 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -30,6 +34,7 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.JAXBIntrospector;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.bind.annotation.XmlRegistry;
 import javax.xml.namespace.QName;
@@ -43,6 +48,8 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 
 import org.apache.commons.lang3.StringUtils;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.DefaultHandler;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -79,16 +86,93 @@ public class ConversionService {
 
     private static final int MAX_LOG_CONTENT = 50;
 
-    // context setup
-    private JAXBContext jaxbContext;
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    /**
+     * Pool of {@link Marshaller} and {@link Unmarshaller} instances of a single {@link JAXBContext}. Instances are
+     * reset to their defaults (no schema, default event handler) when released.
+     */
+    private static class JaxbPool {
+
+        private final JAXBContext context;
 
-    public JAXBContext
+        private final JAXBIntrospector introspector;
+
+        private final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
+        private final Queue<Unmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+
+        JaxbPool(final JAXBContext context) {
+            this.context = context;
+            this.introspector = context.createJAXBIntrospector();
+        }
+
+        Marshaller borrowMarshaller() throws JAXBException {
+            final Marshaller m = this.marshallers.poll();
+            return m != null ? m : this.context.createMarshaller();
+        }
 
-            getJaxbContext() {
-        if (this.jaxbContext == null) {
-            initialize();
+        void release(final Marshaller marshaller) throws JAXBException {
+            marshaller.setSchema(null);
+            marshaller.setEventHandler(null);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+            this.marshallers.offer(marshaller);
+        }
+
+        Unmarshaller borrowUnmarshaller() throws JAXBException {
+            final Unmarshaller u = this.unmarshallers.poll();
+            return u != null ? u : this.context.createUnmarshaller();
+        }
+
+        void release(final Unmarshaller unmarshaller) throws JAXBException {
+            unmarshaller.setSchema(null);
+            unmarshaller.setEventHandler(null);
+            this.unmarshallers.offer(unmarshaller);
         }
-        return this.jaxbContext;
+    }
+
+    /**
+     * Shared JAXB contexts keyed by the sorted set of packages. Creating a context is expensive, so it is created only
+     * once per package set and shared across all instances.
+     */
+    private static final Map<String, JaxbPool> CONTEXTS = new ConcurrentHashMap<>();
+
+    // context setup
+    private volatile JaxbPool pool;
+
+    /**
+     * Creates a conversion service with the default context, see {@link #initialize()}.
+     */
+    public ConversionService() {
+        initialize();
+    }
+
+    /**
+     * Creates a conversion service for the given packages.
+     *
+     * @param context packages for the JAXB context
+     */
+    public ConversionService(final Package... context) {
+        initialize(context);
+    }
+
+    public JAXBContext getJaxbContext() {
+        return getPool().context;
+    }
+
+    private JaxbPool getPool() {
+        return this.pool;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return inputFactory;
     }
 
     private static <T> QName createQName(final T model) {
@@ -127,7 +211,8 @@ public class ConversionService {
      * @param context packages für den JAXB Kontext
      */
     public void initialize(final Collection<Package> context) {
-        final String[] packages = context != null ? context.stream().map(Package::getName).toArray(String[]::new) : new String[0];
+        final String[] packages = context != null ? context.stream().map(Package::getName).distinct().sorted().toArray(String[]::new)
+                : new String[0];
         final StringJoiner joiner = new StringJoiner(":");
         Arrays.stream(packages).forEach(joiner::add);
         initialize(joiner.toString());
@@ -139,8 +224,13 @@ public class ConversionService {
      * @param contextPath der Kontextpfad
      */
     private void initialize(final String contextPath) {
+        this.pool = CONTEXTS.computeIfAbsent(contextPath, ConversionService::createPool);
+    }
+
+    private static JaxbPool createPool(final String contextPath) {
         try {
-            this.jaxbContext = JAXBContext.newInstance(contextPath, ConversionService.class.getClassLoader());
+            log.debug("Creating JAXB context for {}", contextPath);
+            return new JaxbPool(JAXBContext.newInstance(contextPath, ConversionService.class.getClassLoader()));
         } catch (final JAXBException e) {
             throw new IllegalStateException(String.format("Can not create JAXB context for given context: %s", contextPath), e);
         }
@@ -172,16 +262,19 @@ public class ConversionService {
             handler2Use = defaultHandler;
         }
         try {
-            final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
-            inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-            inputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
-            inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-            final XMLStreamReader xsr = inputFactory.createXMLStreamReader(new StreamSource(xml.toASCIIString()));
-            final Unmarshaller u = getJaxbContext().createUnmarshaller();
+            final JaxbPool jaxb = getPool();
+            final XMLStreamReader xsr = INPUT_FACTORY.createXMLStreamReader(new StreamSource(xml.toASCIIString()));
+            final Unmarshaller u = jaxb.borrowUnmarshaller();
             u.setSchema(schema);
 
             u.setEventHandler(handler2Use);
-            final T value = u.unmarshal(xsr, type).getValue();
+            final T value;
+            try {
+                value = u.unmarshal(xsr, type).getValue();
+            } finally {
+                xsr.close();
+            }
+            jaxb.release(u);
             if (defaultHandler != null && defaultHandler.hasErrors()) {
                 throw new ConversionExeption(
                         String.format("Schema errors while reading content from %s: %s", xml, defaultHandler.getErrorDescription()));
@@ -209,37 +302,121 @@ public class ConversionService {
             throw new ConversionExeption("Can not serialize null");
         }
         try ( final StringWriter w = new StringWriter() ) {
-            final JAXBIntrospector introspector = getJaxbContext().createJAXBIntrospector();
-            final Marshaller marshaller = getJaxbContext().createMarshaller();
+            final JaxbPool jaxb = getPool();
+            final Marshaller marshaller = jaxb.borrowMarshaller();
             marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
             marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
             marshaller.setSchema(schema);
             marshaller.setEventHandler(handler);
-            final XMLOutputFactory xof = XMLOutputFactory.newFactory();
-            final XMLStreamWriter xmlStreamWriter = xof.createXMLStreamWriter(w);
-            if (null == introspector.getElementName(model)) {
-                final JAXBElement jaxbElement = new JAXBElement(createQName(model), model.getClass(), model);
-                marshaller.marshal(jaxbElement, xmlStreamWriter);
-            } else {
-                marshaller.marshal(model, xmlStreamWriter);
-            }
+            final XMLStreamWriter xmlStreamWriter = OUTPUT_FACTORY.createXMLStreamWriter(w);
+            marshaller.marshal(wrap(jaxb.introspector, model), xmlStreamWriter);
             xmlStreamWriter.flush();
+            jaxb.release(marshaller);
             return w.toString();
         } catch (final JAXBException | IOException | XMLStreamException e) {
             throw new ConversionExeption(String.format("Error serializing Object %s", model.getClass().getName()), e);
         }
     }
 
-    public <T> T readDocument(final Source source, final Class<T> type) {
+    /**
+     * Validates an object against a schema without serializing it. The marshaller events are streamed into the schema
+     * validator and discarded afterwards.
+     *
+     * @param model the object
+     * @param schema the schema
+     * @param handler the handler collecting validation events
+     * @param <T> type of the object
+     */
+    public <T> void validateXml(final T model, final Schema schema, final ValidationEventHandler handler) {
+        if (model == null) {
+            throw new ConversionExeption("Can not validate null");
+        }
         try {
-            final Unmarshaller u = getJaxbContext().createUnmarshaller();
+            final JaxbPool jaxb = getPool();
+            final Marshaller marshaller = jaxb.borrowMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            marshaller.setSchema(schema);
+            marshaller.setEventHandler(handler);
+            marshaller.marshal(wrap(jaxb.introspector, model), new DefaultHandler());
+            jaxb.release(marshaller);
+        } catch (final JAXBException e) {
+            throw new ConversionExeption(String.format("Error validating Object %s", model.getClass().getName()), e);
+        }
+    }
 
-            return u.unmarshal(source, type).getValue();
+    /**
+     * Serializes an object into the given SAX {@link ContentHandler}, e.g. a tree builder.
+     *
+     * @param model the object
+     * @param handler the target
+     * @param <T> type of the object
+     */
+    public <T> void writeXml(final T model, final ContentHandler handler) {
+        if (model == null) {
+            throw new ConversionExeption("Can not serialize null");
+        }
+        try {
+            final JaxbPool jaxb = getPool();
+            final Marshaller marshaller = jaxb.borrowMarshaller();
+            marshaller.marshal(wrap(jaxb.introspector, model), handler);
+            jaxb.release(marshaller);
+        } catch (final JAXBException e) {
+            throw new ConversionExeption(String.format("Error serializing Object %s", model.getClass().getName()), e);
+        }
+    }
 
+    private static <T> Object wrap(final JAXBIntrospector introspector, final T model) {
+        if (null == introspector.getElementName(model)) {
+            return new JAXBElement(createQName(model), model.getClass(), model);
+        }
+        return model;
+    }
+
+    public <T> T readDocument(final Source source, final Class<T> type) {
+        try {
+            final JaxbPool jaxb = getPool();
+            final Unmarshaller u = jaxb.borrowUnmarshaller();
+            final T value = u.unmarshal(source, type).getValue();
+            jaxb.release(u);
+            return value;
         } catch (final JAXBException e) {
             throw new ConversionExeption(String.format("Can not unmarshal to type %s: %s", type.getSimpleName(),
                     StringUtils.abbreviate(source.getSystemId(), MAX_LOG_CONTENT)), e);
         }
     }
+
+    /**
+     * Creates a SAX {@link UnmarshallerHandler} for streaming unmarshalling, e.g. directly from a transformation
+     * result.
+     *
+     * @return a new handler
+     */
+    public UnmarshallerHandler createUnmarshallerHandler() {
+        try {
+            return getJaxbContext().createUnmarshaller().getUnmarshallerHandler();
+        } catch (final JAXBException e) {
+            throw new ConversionExeption("Can not create unmarshaller", e);
+        }
+    }
+
+    /**
+     * Returns the object unmarshalled by the given handler.
+     *
+     * @param handler the handler, which received a complete document
+     * @param type the expected type
+     * @param <T> type information
+     * @return the unmarshalled object
+     */
+    public <T> T readResult(final UnmarshallerHandler handler, final Class<T> type) {
+        try {
+            final Object value = JAXBIntrospector.getValue(handler.getResult());
+            if (!type.isInstance(value)) {
+                throw new ConversionExeption(String.format("Can not unmarshal to type %s: unexpected content %s", type.getSimpleName(),
+                        value == null ? null : value.getClass().getSimpleName()));
+            }
+            return type.cast(value);
+        } catch (final JAXBException | IllegalStateException e) {
+            throw new ConversionExeption(String.format("Can not unmarshal to type %s", type.getSimpleName()), e);
+        }
+    }
 }
@@ -23,9 +23,15 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Check;
@@ -42,6 +48,8 @@ import de.kosit.validationtool.impl.tasks.DocumentParseAction;
 import de.kosit.validationtool.impl.tasks.ScenarioSelectionAction;
 import de.kosit.validationtool.impl.tasks.SchemaValidationAction;
 import de.kosit.validationtool.impl.tasks.SchematronValidationAction;
+import de.kosit.validationtool.impl.tasks.SinglePassParseAction;
+import de.kosit.validationtool.impl.tasks.SpeculativeValidationAction;
 import de.kosit.validationtool.impl.tasks.ValidateReportInputAction;
 import de.kosit.validationtool.impl.xml.ProcessorProvider;
 import de.kosit.validationtool.model.reportInput.CreateReportInput;
@@ -71,6 +79,19 @@ public class DefaultCheck implements Check {
     @Getter
     private final Processor processor;
 
+    @Getter
+    private final ScenarioRepository scenarioRepository;
+
+    /** Shared by all results, the expression is compiled once */
+    private final HtmlExtractor htmlExtractor;
+
+    /**
+     * The default {@link Executor} for asynchronous checks.
+     */
+    @Getter
+    @Setter
+    private Executor executor = ForkJoinPool.commonPool();
+
     public DefaultCheck(final Configuration... configuration) {
         this(ProcessorProvider.getProcessor(), configuration);
     }
@@ -84,11 +105,13 @@ public class DefaultCheck implements Check {
         this.configuration = Arrays.asList(configuration);
         this.processor = processor;
         this.conversionService = new ConversionService();
+        this.scenarioRepository = new ScenarioRepository(configuration);
+        this.htmlExtractor = new HtmlExtractor(processor);
 
         this.checkSteps = new ArrayList<>();
         this.checkSteps.add(new DocumentParseAction(processor));
         this.checkSteps.add(new CreateDocumentIdentificationAction());
-        this.checkSteps.add(new ScenarioSelectionAction(new ScenarioRepository(configuration)));
+        this.checkSteps.add(new ScenarioSelectionAction(this.scenarioRepository));
         this.checkSteps.add(new SchemaValidationAction(processor));
         this.checkSteps.add(new SchematronValidationAction(this.conversionService));
         this.checkSteps.add(new ValidateReportInputAction(this.conversionService, SchemaProvider.getReportInputSchema()));
@@ -96,6 +119,90 @@ public class DefaultCheck implements Check {
         this.checkSteps.add(new ComputeAcceptanceAction());
     }
 
+    /**
+     * Enables concurrent execution of multiple schematron validations of a scenario using the given (shared)
+     * {@link Executor}. Results are merged in declaration order. Passing <code>null</code> restores sequential
+     * execution.
+     *
+     * @param executor the executor or null
+     */
+    public void setSchematronExecutor(final Executor executor) {
+        this.checkSteps.stream()
+                .map(s -> s instanceof SpeculativeValidationAction ? ((SpeculativeValidationAction) s).getSchematronValidation() : s)
+                .filter(SchematronValidationAction.class::isInstance).map(SchematronValidationAction.class::cast)
+                .forEach(a -> a.setExecutor(executor));
+    }
+
+    /**
+     * Enables the speculative mode. The schematron validations are started in parallel to the schema validation using
+     * the given {@link Executor}. Their results are discarded, if the document is not schema valid. This should be
+     * called before using the check instance.
+     *
+     * @param executor the executor running the schematron validations
+     */
+    public void enableSpeculativeValidation(final Executor executor) {
+        final int schemaIndex = indexOf(SchemaValidationAction.class);
+        final int schematronIndex = indexOf(SchematronValidationAction.class);
+        if (schemaIndex < 0 || schematronIndex != schemaIndex + 1) {
+            throw new IllegalStateException("Speculative validation requires consecutive schema and schematron validation steps");
+        }
+        final SpeculativeValidationAction action = new SpeculativeValidationAction(
+                (SchemaValidationAction) this.checkSteps.get(schemaIndex),
+                (SchematronValidationAction) this.checkSteps.get(schematronIndex), executor);
+        this.checkSteps.set(schemaIndex, action);
+        this.checkSteps.remove(schematronIndex);
+    }
+
+    /**
+     * Enables the pre-selection of scenarios. The prolog of the document (root element, namespaces and the leading
+     * identifying elements) is read in advance and the possibly matching scenarios are determined before the document
+     * is parsed. Documents matching no scenario are not parsed at all. This should be called before using the check
+     * instance.
+     */
+    public void enablePreSelection() {
+        final int index = indexOf(DocumentParseAction.class);
+        if (index < 0) {
+            throw new IllegalStateException("Pre-selection requires a document parse step");
+        }
+        if (!(this.checkSteps.get(index) instanceof SinglePassParseAction)) {
+            this.checkSteps.set(index, new DocumentParseAction(this.processor, this.scenarioRepository));
+        }
+    }
+
+    /**
+     * Enables single pass parsing including the pre-selection of scenarios (see {@link #enablePreSelection()}). The
+     * document is parsed and validated against the schema of the preselected scenarios in one pass, if all these
+     * scenarios share the same schema. This should be called before using the check instance.
+     */
+    public void enableSinglePassParsing() {
+        final int index = indexOf(DocumentParseAction.class);
+        if (index < 0) {
+            throw new IllegalStateException("Single pass parsing requires a document parse step");
+        }
+        this.checkSteps.set(index, new SinglePassParseAction(this.processor, this.scenarioRepository));
+    }
+
+    /**
+     * Disables the validation of the internal report input against its schema. This self check guards the report
+     * generation against invalid intermediate results and can be omitted in production, once the configuration is
+     * tested. This should be called before using the check instance.
+     */
+    public void disableReportInputValidation() {
+        final int index = indexOf(ValidateReportInputAction.class);
+        if (index >= 0) {
+            this.checkSteps.remove(index);
+        }
+    }
+
+    private int indexOf(final Class<? extends CheckAction> type) {
+        for (int i = 0; i < this.checkSteps.size(); i++) {
+            if (type.isInstance(this.checkSteps.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     protected static CreateReportInput createReport() {
         final CreateReportInput type = new CreateReportInput();
         final EngineType e = new EngineType();
@@ -116,10 +223,42 @@ public class DefaultCheck implements Check {
         return runCheckInternal(t);
     }
 
+    @Override
+    public CompletionStage<Result> checkInputAsync(final Input input) {
+        return checkInputAsync(input, this.executor);
+    }
+
+    /**
+     * Checks an {@link Input} asynchronously. Cancelling or completing the returned future stops processing after the
+     * currently running check step.
+     *
+     * @param input the resource / xml file to validate.
+     * @param executor the executor running the check
+     * @return a {@link CompletionStage} of the {@link Result}
+     */
+    @Override
+    public CompletionStage<Result> checkInputAsync(final Input input, final Executor executor) {
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+        final CheckAction.Bag t = new CheckAction.Bag(input, createReport());
+        t.setCancellation(future::isDone);
+        executor.execute(() -> {
+            try {
+                future.complete(runCheckInternal(t));
+            } catch (final RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
     protected Result runCheckInternal(final CheckAction.Bag t) {
         final long started = System.currentTimeMillis();
         log.info("Checking content of {}", t.getInput().getName());
         for (final CheckAction action : this.checkSteps) {
+            if (t.isCancelled()) {
+                log.info("Check of {} cancelled before {}", t.getInput().getName(), action.getClass().getSimpleName());
+                throw new CancellationException(String.format("Check of %s cancelled", t.getInput().getName()));
+            }
             final long start = System.currentTimeMillis();
             if (!action.isSkipped(t)) {
                 action.check(t);
@@ -132,7 +271,7 @@ public class DefaultCheck implements Check {
     }
 
     private Result createResult(final Bag t) {
-        final DefaultResult result = new DefaultResult(t.getReport(), t.getAcceptStatus(), new HtmlExtractor(this.processor));
+        final DefaultResult result = new DefaultResult(t.getReport(), t.getAcceptStatus(), this.htmlExtractor);
         result.setWellformed(t.getParserResult().isValid());
         result.setReportInput(t.getReportInput());
         if (t.getSchemaValidationResult() != null) {
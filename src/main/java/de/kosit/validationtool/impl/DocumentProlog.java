@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.sapling.SaplingElement;
+import net.sf.saxon.sapling.Saplings;
+
+/**
+ * The prolog of a document, i.e. the root element with its namespace declarations and attributes and the identifying
+ * child elements (<code>CustomizationID</code>, <code>ProfileID</code>). The prolog is read with StAX from a prefix of
+ * the document and allows the selection of a scenario before the full document is parsed. Identifying elements are
+ * distinguished by their qualified name. Elements occurring more than once within the prefix are recorded as repeated,
+ * expressions referring to them can not be decided on the prolog. Occurrences beyond the prefix are not known.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class DocumentProlog {
+
+    /** Number of bytes read to determine the prolog */
+    public static final int PREFIX_SIZE = 16 * 1024;
+
+    /** Local names of the identifying child elements of the root element */
+    public static final Set<String> ELEMENTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("CustomizationID", "ProfileID")));
+
+    private static final DocumentProlog UNKNOWN = new DocumentProlog(null, Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), Collections.emptySet());
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    /** The root element or null, if the prefix does not contain the root element */
+    private final QName rootElement;
+
+    /** The namespaces declared at the root element by prefix */
+    private final Map<String, String> namespaces;
+
+    /** The attributes of the root element */
+    private final Map<QName, String> attributes;
+
+    /**
+     * The identifying child elements of the root element found within the prefix (first occurrence), in document order
+     */
+    private final Map<QName, String> elements;
+
+    /** The identifying child elements occurring more than once within the prefix */
+    private final Set<QName> repeated;
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
+    /**
+     * Reads the prolog from a prefix of the stream. The prefix is pushed back to the stream afterwards, so the stream
+     * can be parsed completely afterwards. The stream must support a pushback of {@link #PREFIX_SIZE} bytes.
+     *
+     * @param stream the stream
+     * @return the prolog
+     * @throws IOException on I/O errors reading the stream
+     */
+    public static DocumentProlog read(final PushbackInputStream stream) throws IOException {
+        final byte[] prefix = new byte[PREFIX_SIZE];
+        int length = 0;
+        int read = 0;
+        while (length < prefix.length && (read = stream.read(prefix, length, prefix.length - length)) >= 0) {
+            length += read;
+        }
+        stream.unread(prefix, 0, length);
+        return read(new ByteArrayInputStream(prefix, 0, length));
+    }
+
+    /**
+     * Reads the prolog from the (possibly truncated) prefix of a document.
+     *
+     * @param prefix the prefix
+     * @return the prolog, with an unknown root element if the prefix can not be read
+     */
+    public static DocumentProlog read(final InputStream prefix) {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(prefix);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    return readRoot(reader);
+                }
+            }
+        } catch (final XMLStreamException e) {
+            log.debug("Can not determine root element from prefix", e);
+        } finally {
+            close(reader);
+        }
+        return UNKNOWN;
+    }
+
+    private static DocumentProlog readRoot(final XMLStreamReader reader) {
+        final Map<String, String> namespaces = new LinkedHashMap<>();
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            namespaces.put(reader.getNamespacePrefix(i) == null ? "" : reader.getNamespacePrefix(i), reader.getNamespaceURI(i));
+        }
+        final Map<QName, String> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(reader.getAttributeName(i), reader.getAttributeValue(i));
+        }
+        final QName name = reader.getName();
+        final Map<QName, String> elements = new LinkedHashMap<>();
+        final Set<QName> repeated = new HashSet<>();
+        try {
+            readElements(reader, elements, repeated);
+        } catch (final XMLStreamException e) {
+            // end of prefix or not wellformed, the full parse will tell
+            log.debug("Stopped reading prolog elements: {}", e.getMessage());
+        }
+        return new DocumentProlog(name, Collections.unmodifiableMap(namespaces), Collections.unmodifiableMap(attributes),
+                Collections.unmodifiableMap(elements), Collections.unmodifiableSet(repeated));
+    }
+
+    private static void readElements(final XMLStreamReader reader, final Map<QName, String> elements, final Set<QName> repeated)
+            throws XMLStreamException {
+        // the whole prefix is read to detect repeated elements
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 1 && ELEMENTS.contains(reader.getLocalName())) {
+                    final QName name = reader.getName();
+                    // moves to the end element
+                    final String text = reader.getElementText();
+                    if (elements.putIfAbsent(name, text) != null) {
+                        repeated.add(name);
+                    }
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Determines whether an identifying child element with the given name was found.
+     *
+     * @param name the qualified name
+     * @return true if found
+     */
+    public boolean hasElement(final QName name) {
+        return this.elements.containsKey(name);
+    }
+
+    /**
+     * Determines whether expressions referring to the identifying child element with the given name can be decided on
+     * the prolog, i.e. the element was found exactly once within the prefix.
+     *
+     * @param name the qualified name
+     * @return true if decidable
+     */
+    public boolean isDecidable(final QName name) {
+        return hasElement(name) && !this.repeated.contains(name);
+    }
+
+    /**
+     * Creates a stub document consisting of the prolog only. Expressions, which only refer to the root element and the
+     * identifying elements of the prolog, evaluate on the stub as on the full document.
+     *
+     * @param processor the processor
+     * @return the stub document or null, if the root element is unknown or the stub can not be created
+     */
+    public XdmNode createStub(final Processor processor) {
+        if (this.rootElement == null) {
+            return null;
+        }
+        try {
+            SaplingElement root = Saplings.elem(toQName(this.rootElement));
+            for (final Map.Entry<String, String> ns : this.namespaces.entrySet()) {
+                root = root.withNamespace(ns.getKey(), ns.getValue());
+            }
+            for (final Map.Entry<QName, String> a : this.attributes.entrySet()) {
+                root = root.withAttr(toQName(a.getKey()), a.getValue());
+            }
+            for (final Map.Entry<QName, String> e : this.elements.entrySet()) {
+                root = root.withChild(Saplings.elem(toQName(e.getKey())).withText(e.getValue()));
+            }
+            return Saplings.doc().withChild(root).toXdmNode(processor);
+        } catch (final SaxonApiException | IllegalArgumentException e) {
+            log.debug("Can not create stub document for {}", this.rootElement, e);
+            return null;
+        }
+    }
+
+    private static net.sf.saxon.s9api.QName toQName(final QName name) {
+        return new net.sf.saxon.s9api.QName(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart());
+    }
+
+    private static void close(final XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (final XMLStreamException e) {
+                log.debug("Error closing reader", e);
+            }
+        }
+    }
+}
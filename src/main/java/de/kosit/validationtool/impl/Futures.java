@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helper for waiting on {@link CompletableFuture}s.
+ */
+public class Futures {
+
+    private Futures() {
+        // hide
+    }
+
+    /**
+     * Waits for the completion of the future and returns its result. A {@link RuntimeException} causing the
+     * {@link CompletionException} is rethrown unwrapped, so callers see the same exception as with synchronous
+     * execution.
+     *
+     * @param future the future
+     * @param <T> the type of the result
+     * @return the result
+     */
+    public static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Unwraps the cause of a {@link CompletionException}, if it is a {@link RuntimeException}.
+     *
+     * @param e the exception
+     * @return the cause or the exception itself
+     */
+    public static RuntimeException unwrap(final RuntimeException e) {
+        if (e instanceof CompletionException && e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return e;
+    }
+}
@@ -25,7 +25,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Element;
 
-import lombok.RequiredArgsConstructor;
+import de.kosit.validationtool.impl.xml.CachedXPath;
 
 import net.sf.saxon.dom.NodeOverNodeInfo;
 import net.sf.saxon.s9api.Processor;
@@ -33,28 +33,31 @@ import net.sf.saxon.s9api.SaxonApiException;
 import net.sf.saxon.s9api.Serializer;
 import net.sf.saxon.s9api.XPathCompiler;
 import net.sf.saxon.s9api.XPathExecutable;
-import net.sf.saxon.s9api.XPathSelector;
 import net.sf.saxon.s9api.XdmItem;
 import net.sf.saxon.s9api.XdmNode;
 
 /**
- * Funktion zum Extrahieren von HTML-Artefakten / Knoten aus einem XML-Dokument.
+ * Funktion zum Extrahieren von HTML-Artefakten / Knoten aus einem XML-Dokument. Instanzen sind threadsafe und sollten
+ * wiederverwendet werden, der XPath-Ausdruck wird einmalig kompiliert.
  *
  * @author Andreas Penski
  */
-@RequiredArgsConstructor
 public class HtmlExtractor {
 
     private final Processor processor;
 
-    private XPathExecutable executable;
+    private final CachedXPath expression;
+
+    public HtmlExtractor(final Processor processor) {
+        this.processor = processor;
+        final Map<String, String> ns = new HashMap<>();
+        ns.put("html", "http://www.w3.org/1999/xhtml");
+        this.expression = new CachedXPath(createXPath("//html:html", ns));
+    }
 
     public List<XdmNode> extract(final XdmNode xdmSource) {
         try {
-            final XPathSelector selector = getSelector();
-            selector.setContextItem(xdmSource);
-            return selector.stream().map(HtmlExtractor::castToNode).collect(Collectors.toList());
-
+            return this.expression.evaluate(xdmSource).stream().map(HtmlExtractor::castToNode).collect(Collectors.toList());
         } catch (final SaxonApiException e) {
             throw new IllegalStateException("Can not extract html content", e);
         }
@@ -64,15 +67,6 @@ public class HtmlExtractor {
         return (XdmNode) xdmItem;
     }
 
-    private XPathSelector getSelector() {
-        if (this.executable == null) {
-            final Map<String, String> ns = new HashMap<>();
-            ns.put("html", "http://www.w3.org/1999/xhtml");
-            this.executable = createXPath("//html:html", ns);
-        }
-        return this.executable.load();
-    }
-
     private XPathExecutable createXPath(final String expression, final Map<String, String> namespaces) {
         try {
             final XPathCompiler compiler = this.processor.newXPathCompiler();
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.kosit.validationtool.model.scenarios.NamespaceType;
+import de.kosit.validationtool.model.scenarios.ScenarioType;
+
+/**
+ * Conservative static analysis of the match expression of a scenario. The analysis only recognizes expressions of the
+ * form <code>/prefix:name[predicate]...</code>, e.g. expressions which restrict the root element of a document. Any
+ * other expression is treated as 'unknown', i.e. it may match any root element. An explicit <code>rootElement</code>
+ * hint in the scenario configuration takes precedence over the analysis.
+ */
+public class MatchAnalyzer {
+
+    private static final Pattern QUOTED = Pattern.compile("'[^']*'|\"[^\"]*\"");
+
+    private static final Pattern NAME = Pattern.compile("(?<![\\w.\\-])[A-Za-z_][\\w.\\-]*(:[A-Za-z_][\\w.\\-]*)?");
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("and", "or", "div", "idiv", "mod", "eq", "ne", "lt", "le", "gt",
+            "ge", "is", "to", "union", "intersect", "except", "instance", "of", "treat", "as", "castable", "cast", "if", "then", "else",
+            "for", "in", "return", "some", "every", "satisfies", "let"));
+
+    private static final Pattern NUMBER = Pattern.compile("\\d*\\.?\\d+([eE][+-]?\\d+)?");
+
+    private static final Set<String> FUNCTIONS = new HashSet<>(
+            Arrays.asList("not", "true", "false", "boolean", "exists", "empty", "starts-with", "ends-with", "contains", "matches", "concat",
+                    "normalize-space", "lower-case", "upper-case", "substring", "substring-before", "substring-after"));
+
+    private MatchAnalyzer() {
+        // hide
+    }
+
+    /**
+     * Determines the root element required by the match expression of the scenario.
+     *
+     * @param scenario the scenario
+     * @return the required root element or empty, if the expression can not be analyzed
+     */
+    public static Optional<QName> getRootElement(final Scenario scenario) {
+        return getRootElement(scenario.getConfiguration());
+    }
+
+    /**
+     * Determines the root element required by the match expression of the scenario configuration.
+     *
+     * @param configuration the scenario configuration
+     * @return the required root element or empty, if the expression can not be analyzed
+     */
+    public static Optional<QName> getRootElement(final ScenarioType configuration) {
+        final String hint = StringUtils.trimToEmpty(configuration.getRootElement());
+        if (!hint.isEmpty()) {
+            return isName(hint) ? resolve(hint, configuration) : Optional.empty();
+        }
+        final String match = StringUtils.trimToEmpty(configuration.getMatch());
+        final int pos = getRootNameEnd(match);
+        if (pos < 0) {
+            return Optional.empty();
+        }
+        return resolve(match.substring(1, pos), configuration);
+    }
+
+    private static boolean isNameChar(final char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.' || c == ':';
+    }
+
+    /**
+     * Determines the qualified names of the elements referenced within the predicates of a match expression of the form
+     * <code>/prefix:name[predicate]...</code>. The analysis is only successful for simple predicates, which refer to
+     * child elements of the root element and attributes of the root element only, e.g.
+     * <code>/inv:Invoice[starts-with(cbc:CustomizationID, '...')]</code>.
+     *
+     * @param configuration the scenario configuration
+     * @return the referenced element names or empty, if the expression can not be analyzed
+     */
+    public static Optional<Set<QName>> getPredicateElements(final ScenarioType configuration) {
+        final String match = StringUtils.trimToEmpty(configuration.getMatch());
+        final int pos = getRootNameEnd(match);
+        if (pos < 0) {
+            return Optional.empty();
+        }
+        final String predicates = match.substring(pos);
+        final Set<QName> names = new HashSet<>();
+        final String unquoted = QUOTED.matcher(predicates).replaceAll("''");
+        if (unquoted.contains("/") || unquoted.contains("*") || unquoted.contains("$") || unquoted.contains("::")) {
+            // paths, wildcards, variables and axes are not supported
+            return Optional.empty();
+        }
+        final Matcher matcher = NAME.matcher(unquoted);
+        while (matcher.find()) {
+            final String name = matcher.group();
+            final boolean attribute = matcher.start() > 0 && unquoted.charAt(matcher.start() - 1) == '@';
+            final String rest = unquoted.substring(matcher.end()).trim();
+            if (rest.startsWith("(")) {
+                // only functions not depending on the context item
+                final boolean noArguments = rest.substring(1).trim().startsWith(")");
+                if (!FUNCTIONS.contains(name) || (noArguments && !"true".equals(name) && !"false".equals(name))) {
+                    return Optional.empty();
+                }
+            } else if (!attribute && !KEYWORDS.contains(name)) {
+                final Optional<QName> element = resolve(name, configuration);
+                if (!element.isPresent()) {
+                    // undeclared prefix
+                    return Optional.empty();
+                }
+                names.add(element.get());
+            }
+        }
+        if (NUMBER.matcher(NAME.matcher(unquoted).replaceAll("")).replaceAll("").contains(".")) {
+            // context item
+            return Optional.empty();
+        }
+        return Optional.of(names);
+    }
+
+    /**
+     * Determines the end of the root element name of an expression of the form <code>/prefix:name[predicate]...</code>.
+     *
+     * @return the end position or -1 if the expression does not have this form
+     */
+    private static int getRootNameEnd(final String match) {
+        if (!match.startsWith("/") || match.startsWith("//")) {
+            return -1;
+        }
+        int pos = 1;
+        while (pos < match.length() && isNameChar(match.charAt(pos))) {
+            pos++;
+        }
+        return pos > 1 && hasOnlyPredicates(match.substring(pos)) ? pos : -1;
+    }
+
+    private static boolean isName(final String name) {
+        return name.chars().allMatch(c -> isNameChar((char) c));
+    }
+
+    private static boolean hasOnlyPredicates(final String rest) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < rest.length(); i++) {
+            final char c = rest.charAt(i);
+            if (quote != 0) {
+                quote = c == quote ? 0 : quote;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+                if (depth < 0) {
+                    return false;
+                }
+            } else if (depth == 0 && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return depth == 0 && quote == 0;
+    }
+
+    private static Optional<QName> resolve(final String name, final ScenarioType configuration) {
+        final int colon = name.indexOf(':');
+        if (colon < 0) {
+            // the empty prefix declares the default element namespace, see ContentRepository#createXPath
+            return Optional.of(new QName(lookup(XMLConstants.DEFAULT_NS_PREFIX, configuration).orElse(XMLConstants.NULL_NS_URI), name));
+        }
+        final String prefix = name.substring(0, colon);
+        final String localName = name.substring(colon + 1);
+        if (localName.isEmpty() || localName.indexOf(':') >= 0) {
+            return Optional.empty();
+        }
+        return lookup(prefix, configuration).map(ns -> new QName(ns, localName));
+    }
+
+    private static Optional<String> lookup(final String prefix, final ScenarioType configuration) {
+        return configuration.getNamespace().stream().filter(n -> prefix.equals(StringUtils.trimToEmpty(n.getPrefix())))
+                .map(NamespaceType::getValue).map(StringUtils::trim).findFirst();
+    }
+}
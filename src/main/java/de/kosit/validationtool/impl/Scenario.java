@@ -19,16 +19,19 @@ package de.kosit.validationtool.impl;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.xml.transform.URIResolver;
 import javax.xml.validation.Schema;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
 import de.kosit.validationtool.api.ResolvingConfigurationStrategy;
+import de.kosit.validationtool.impl.xml.CachedXPath;
 import de.kosit.validationtool.model.scenarios.ResourceType;
 import de.kosit.validationtool.model.scenarios.ScenarioType;
 
@@ -60,16 +63,32 @@ public class Scenario {
 
     private final ScenarioType configuration;
 
+    @Setter(AccessLevel.NONE)
     private Schema schema;
 
     private boolean fallback;
 
+    @Setter(AccessLevel.NONE)
     private XPathExecutable matchExecutable;
 
+    @Setter(AccessLevel.NONE)
     private XPathExecutable acceptExecutable;
 
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private CachedXPath matchXPath;
+
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private CachedXPath acceptXPath;
+
+    @Setter(AccessLevel.NONE)
     private ResolvingConfigurationStrategy factory;
 
+    @Setter(AccessLevel.NONE)
+    @Getter(AccessLevel.NONE)
+    private ValidatorPool validatorPool;
+
     private URIResolver uriResolver;
 
     private UnparsedTextURIResolver unparsedTextURIResolver;
@@ -79,19 +98,121 @@ public class Scenario {
 
     private Transformation reportTransformation;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Consumer<Scenario> initializer;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Object initializationLock = new Object();
+
+    /**
+     * Setzt eine Initialisierung, die beim ersten Zugriff auf Schema, Schematron- oder Report-Transformationen
+     * ausgeführt wird (lazy compilation). Der Initialisierer darf nur Setter verwenden.
+     *
+     * @param initializer der Initialisierer
+     */
+    public void setInitializer(final Consumer<Scenario> initializer) {
+        this.initializer = initializer;
+    }
+
+    /**
+     * Führt eine ausstehende Initialisierung aus. Gleichzeitige Aufrufe warten auf eine einzige Initialisierung.
+     * Schlägt diese fehl, wird sie beim nächsten Aufruf wiederholt.
+     */
+    public void initialize() {
+        if (this.initializer == null) {
+            return;
+        }
+        synchronized (this.initializationLock) {
+            final Consumer<Scenario> pending = this.initializer;
+            if (pending != null) {
+                pending.accept(this);
+                this.initializer = null;
+            }
+        }
+    }
+
+    public boolean isInitialized() {
+        return this.initializer == null;
+    }
+
+    public Schema getSchema() {
+        initialize();
+        return this.schema;
+    }
+
+    public Transformation getReportTransformation() {
+        initialize();
+        return this.reportTransformation;
+    }
+
     public List<Transformation> getSchematronValidations() {
+        initialize();
         return this.schematronValidations == null ? Collections.emptyList() : this.schematronValidations;
     }
 
+    public void setSchema(final Schema schema) {
+        this.schema = schema;
+        resetValidatorPool();
+    }
+
+    public void setFactory(final ResolvingConfigurationStrategy factory) {
+        this.factory = factory;
+        resetValidatorPool();
+    }
+
+    private synchronized void resetValidatorPool() {
+        this.validatorPool = null;
+    }
+
+    /**
+     * Liefert den Pool der {@link javax.xml.validation.Validator Validatoren} für das Schema dieses Szenarios.
+     *
+     * @return der Pool
+     */
+    public ValidatorPool getValidatorPool() {
+        initialize();
+        return getOrCreateValidatorPool();
+    }
+
+    private synchronized ValidatorPool getOrCreateValidatorPool() {
+        if (this.validatorPool == null) {
+            final Schema s = this.schema;
+            final ResolvingConfigurationStrategy f = this.factory;
+            this.validatorPool = new ValidatorPool(() -> f.createValidator(s));
+        }
+        return this.validatorPool;
+    }
+
     public String getName() {
         return this.configuration.getName();
     }
 
+    public void setMatchExecutable(final XPathExecutable matchExecutable) {
+        this.matchExecutable = matchExecutable;
+        this.matchXPath = matchExecutable != null ? new CachedXPath(matchExecutable) : null;
+    }
+
+    public void setAcceptExecutable(final XPathExecutable acceptExecutable) {
+        this.acceptExecutable = acceptExecutable;
+        this.acceptXPath = acceptExecutable != null ? new CachedXPath(acceptExecutable) : null;
+    }
+
     public XPathSelector getMatchSelector() {
-        if (this.matchExecutable == null) {
+        return getMatchXPath().getExecutable().load();
+    }
+
+    /**
+     * Liefert den match-Ausdruck mit einem je Thread wiederverwendeten Selector.
+     *
+     * @return der match-Ausdruck
+     */
+    public CachedXPath getMatchXPath() {
+        if (this.matchXPath == null) {
             throw new IllegalStateException("No match executable supplied");
         }
-        return this.matchExecutable.load();
+        return this.matchXPath;
     }
 
     /**
@@ -100,8 +221,17 @@ public class Scenario {
      * @return neuer Selector
      */
     public Optional<XPathSelector> getAcceptSelector() {
-        final XPathSelector selector = this.acceptExecutable != null ? this.acceptExecutable.load() : null;
-        return Optional.ofNullable(selector);
+        return getAcceptXPath().map(x -> x.getExecutable().load());
+    }
+
+    /**
+     * Liefert den Ausdruck zur Evaluierung der {@link de.kosit.validationtool.api.AcceptRecommendation} mit einem je
+     * Thread wiederverwendeten Selector.
+     *
+     * @return der accept-Ausdruck, sofern konfiguriert
+     */
+    public Optional<CachedXPath> getAcceptXPath() {
+        return Optional.ofNullable(this.acceptXPath);
     }
 
 }
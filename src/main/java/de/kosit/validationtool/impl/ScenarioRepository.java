@@ -18,17 +18,27 @@ package de.kosit.validationtool.impl;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.xml.namespace.QName;
+
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Configuration;
 import de.kosit.validationtool.impl.model.Result;
 
+import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.SaxonApiException;
-import net.sf.saxon.s9api.XPathSelector;
 import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
 
 /**
  * Repository for die aktiven Szenario einer Prüfinstanz.
@@ -45,6 +55,8 @@ public class ScenarioRepository {
 
     private final List<Configuration> configuration;
 
+    private volatile SelectionIndex index;
+
     public ScenarioRepository(final Configuration... configuration) {
         if (configuration.length == 0) {
             throw new IllegalArgumentException("Must provide at least one configuration");
@@ -62,7 +74,58 @@ public class ScenarioRepository {
     }
 
     public List<Scenario> getScenarios() {
-        return this.configuration.stream().flatMap(c -> c.getScenarios().stream()).collect(Collectors.toList());
+        return getIndex().getScenarios();
+    }
+
+    /**
+     * Ermittelt die Szenarien, die für ein Dokument mit dem angegebenen Wurzelelement in Frage kommen. Szenarien, deren
+     * match-Ausdruck nicht statisch analysiert werden kann, sind immer Kandidaten. Die Reihenfolge der Konfiguration
+     * bleibt erhalten.
+     *
+     * @param rootElement das Wurzelelement oder null, wenn unbekannt
+     * @return die möglichen Szenarien
+     */
+    public List<Scenario> getCandidates(final QName rootElement) {
+        return getIndex().getCandidates(rootElement);
+    }
+
+    /**
+     * Wählt die Szenarien aus, die für ein Dokument mit dem angegebenen Prolog in Frage kommen. Neben dem Wurzelelement
+     * werden die match-Ausdrücke berücksichtigt, die sich ausschließlich auf die Elemente und Attribute des Prologs
+     * beziehen. Diese werden auf einem Stub-Dokument aus dem Prolog ausgewertet. Alle übrigen Kandidaten bleiben
+     * erhalten, so dass die Auswahl auf dem vollständigen Dokument zum selben Ergebnis führt.
+     *
+     * @param prolog der Prolog des Dokuments
+     * @return die möglichen Szenarien, leer wenn kein Szenario passt
+     */
+    public List<Scenario> preselectScenarios(final DocumentProlog prolog) {
+        final SelectionIndex current = getIndex();
+        final List<Scenario> candidates = current.getCandidates(prolog.getRootElement());
+        if (prolog.getRootElement() == null) {
+            return candidates;
+        }
+        final Map<Processor, Optional<XdmNode>> stubs = new HashMap<>();
+        return candidates.stream().filter(s -> {
+            final Processor processor = current.getStubProcessor(s, prolog);
+            if (processor == null) {
+                return true;
+            }
+            final Optional<XdmNode> stub = stubs.computeIfAbsent(processor, p -> Optional.ofNullable(prolog.createStub(p)));
+            return !stub.isPresent() || matchStub(stub.get(), s);
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Liefert den Index der Szenarien. Der Index wird neu aufgebaut, wenn sich die Szenarien der Konfigurationen
+     * geändert haben.
+     */
+    private SelectionIndex getIndex() {
+        SelectionIndex current = this.index;
+        if (current == null || current.isStale(this.configuration)) {
+            current = new SelectionIndex(this.configuration);
+            this.index = current;
+        }
+        return current;
     }
 
     private String summarizeScenarios() {
@@ -81,8 +144,19 @@ public class ScenarioRepository {
      * @return ein Ergebnis-Objekt zur weiteren Verarbeitung
      */
     public Result<Scenario, String> selectScenario(final XdmNode document) {
+        return selectScenario(document, getCandidates(getRootElement(document)));
+    }
+
+    /**
+     * Ermittelt für das gegebene Dokument das passende Szenario aus den vorausgewählten Kandidaten.
+     *
+     * @param document das Eingabedokument
+     * @param candidates die Kandidaten, z.B. aus {@link #preselectScenarios(DocumentProlog)}
+     * @return ein Ergebnis-Objekt zur weiteren Verarbeitung
+     */
+    public Result<Scenario, String> selectScenario(final XdmNode document, final List<Scenario> candidates) {
         final Result<Scenario, String> result;
-        final List<Scenario> collect = getScenarios().stream().filter(s -> match(document, s)).collect(Collectors.toList());
+        final List<Scenario> collect = candidates.stream().filter(s -> match(document, s)).collect(Collectors.toList());
         if (collect.size() == 1) {
             result = new Result<>(collect.get(0));
         } else if (collect.isEmpty()) {
@@ -95,15 +169,110 @@ public class ScenarioRepository {
 
     }
 
+    private static QName getRootElement(final XdmNode document) {
+        if (document.getNodeKind() != XdmNodeKind.DOCUMENT) {
+            return null;
+        }
+        for (final XdmNode node : document.children()) {
+            if (node.getNodeKind() == XdmNodeKind.ELEMENT) {
+                return node.getNodeName().getStructuredQName().toJaxpQName();
+            }
+        }
+        return null;
+    }
+
     private static boolean match(final XdmNode document, final Scenario scenario) {
         try {
-            final XPathSelector selector = scenario.getMatchSelector();
-            selector.setContextItem(document);
-            return selector.effectiveBooleanValue();
+            return scenario.getMatchXPath().effectiveBooleanValue(document);
         } catch (final SaxonApiException e) {
             log.error("Error evaluating xpath expression", e);
         }
         return false;
     }
 
+    private static boolean matchStub(final XdmNode stub, final Scenario scenario) {
+        try {
+            return scenario.getMatchXPath().effectiveBooleanValue(stub);
+        } catch (final SaxonApiException | IllegalStateException e) {
+            log.debug("Can not evaluate match expression of {} on prolog", scenario.getName(), e);
+            // the full document will tell
+            return true;
+        }
+    }
+
+    /**
+     * Index der Szenarien nach dem vom match-Ausdruck geforderten Wurzelelement. Für jedes bekannte Wurzelelement wird
+     * die Liste der Kandidaten einmalig berechnet, so dass die Auswahl unabhängig von der Anzahl der Szenarien ist.
+     */
+    private static class SelectionIndex {
+
+        private final List<List<Scenario>> sources;
+
+        private final int[] sizes;
+
+        @Getter
+        private final List<Scenario> scenarios;
+
+        private final List<Scenario> unrestricted;
+
+        private final Map<QName, List<Scenario>> candidates = new HashMap<>();
+
+        /** Von den Prolog-Elementen abhängige match-Ausdrücke mit den referenzierten Elementen */
+        private final Map<Scenario, Set<QName>> predicateElements = new IdentityHashMap<>();
+
+        private final Map<Scenario, Processor> processors = new IdentityHashMap<>();
+
+        SelectionIndex(final List<Configuration> configuration) {
+            this.sources = configuration.stream().map(Configuration::getScenarios).collect(Collectors.toList());
+            configuration.stream().filter(c -> c.getScenarios() != null && c.getContentRepository() != null)
+                    .forEach(c -> c.getScenarios().forEach(s -> this.processors.put(s, c.getContentRepository().getProcessor())));
+            this.sizes = this.sources.stream().mapToInt(l -> l == null ? 0 : l.size()).toArray();
+            this.scenarios = Collections
+                    .unmodifiableList(this.sources.stream().filter(Objects::nonNull).flatMap(List::stream).collect(Collectors.toList()));
+            final Map<Scenario, Optional<QName>> roots = new IdentityHashMap<>();
+            this.scenarios.forEach(s -> roots.put(s, MatchAnalyzer.getRootElement(s)));
+            this.unrestricted = Collections
+                    .unmodifiableList(this.scenarios.stream().filter(s -> !roots.get(s).isPresent()).collect(Collectors.toList()));
+            roots.values().stream().filter(Optional::isPresent).map(Optional::get).distinct()
+                    .forEach(root -> this.candidates.put(root, Collections.unmodifiableList(this.scenarios.stream()
+                            .filter(s -> roots.get(s).map(root::equals).orElse(true)).collect(Collectors.toList()))));
+            this.scenarios.stream().filter(s -> roots.get(s).isPresent())
+                    .forEach(s -> MatchAnalyzer.getPredicateElements(s.getConfiguration())
+                            .filter(names -> names.stream().map(QName::getLocalPart).allMatch(DocumentProlog.ELEMENTS::contains))
+                            .ifPresent(names -> this.predicateElements.put(s, names)));
+            log.debug("Indexed {} scenarios by {} root elements. {} scenarios without known root element", this.scenarios.size(),
+                    this.candidates.size(), this.unrestricted.size());
+        }
+
+        List<Scenario> getCandidates(final QName rootElement) {
+            if (rootElement == null) {
+                return this.scenarios;
+            }
+            return this.candidates.getOrDefault(rootElement, this.unrestricted);
+        }
+
+        /**
+         * Liefert den Prozessor zur Auswertung des match-Ausdrucks auf einem Stub des Prologs oder null, wenn der
+         * Ausdruck nicht allein anhand des Prologs entschieden werden kann. Das ist der Fall, wenn ein referenziertes
+         * Element (Namensraum und lokaler Name) im Prolog fehlt oder mehrfach vorkommt.
+         */
+        Processor getStubProcessor(final Scenario scenario, final DocumentProlog prolog) {
+            final Set<QName> names = this.predicateElements.get(scenario);
+            if (names == null || !names.stream().allMatch(prolog::isDecidable)) {
+                return null;
+            }
+            return this.processors.get(scenario);
+        }
+
+        boolean isStale(final List<Configuration> configuration) {
+            for (int i = 0; i < this.sizes.length; i++) {
+                final List<Scenario> current = configuration.get(i).getScenarios();
+                if (current != this.sources.get(i) || (current != null && current.size() != this.sizes[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.xml.validation.Validator;
+
+/**
+ * A bounded pool of preconfigured {@link Validator} instances, e.g. for a single scenario. Creating a {@link Validator}
+ * and configuring its security features is comparatively expensive, so instances are reused across documents.
+ *
+ * Note: {@link Validator#reset()} restores the initial JAXP state and thereby drops the security configuration applied
+ * by the {@link de.kosit.validationtool.api.ResolvingConfigurationStrategy}. Released instances are therefore only
+ * cleared from the per-use state (the error handler). Instances which failed during validation should not be released.
+ */
+public class ValidatorPool {
+
+    private static final int DEFAULT_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final Supplier<Validator> factory;
+
+    private final BlockingQueue<Validator> idle;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public ValidatorPool(final Supplier<Validator> factory) {
+        this(factory, DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param factory the factory for new {@link Validator} instances
+     * @param size the maximum number of idle instances
+     */
+    public ValidatorPool(final Supplier<Validator> factory, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException(String.format("Invalid pool size %s", size));
+        }
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Borrows an idle {@link Validator} or creates a new one.
+     *
+     * @return a {@link Validator} for exclusive use by the caller
+     */
+    public Validator borrow() {
+        final Validator validator = this.idle.poll();
+        if (validator != null) {
+            this.hits.incrementAndGet();
+            return validator;
+        }
+        this.misses.incrementAndGet();
+        return this.factory.get();
+    }
+
+    /**
+     * Returns a {@link Validator} to the pool. The instance is dropped, if the pool is full.
+     *
+     * @param validator the validator
+     */
+    public void release(final Validator validator) {
+        validator.setErrorHandler(null);
+        this.idle.offer(validator);
+    }
+
+    /**
+     * Number of borrowings served by an idle instance.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Number of borrowings which required a new instance.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Number of currently idle instances.
+     *
+     * @return the idle count
+     */
+    public int getIdleCount() {
+        return this.idle.size();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import lombok.Getter;
+
+import de.kosit.validationtool.api.Input;
+
+/**
+ * An {@link Input} for local files, which maps the file into memory using {@link FileChannel#map}. The hashcode is
+ * computed directly from the mapped buffer, so no additional read of the file through a stream is necessary.
+ *
+ * Lifetime of the mapping: each call of {@link #getSource()} creates a new mapping, which is referenced only by the
+ * returned source. The input itself does not hold a mapping, so keeping many inputs (e.g. all targets of a batch) does
+ * not exhaust the number of mappings per process (<code>vm.max_map_count</code>). A mapping is released when its source
+ * is garbage collected. Some platforms (e.g. Windows) do not allow deleting a mapped file until then.
+ */
+@Getter
+public class MappedFileInput extends AbstractInput {
+
+    private final Path path;
+
+    private final String name;
+
+    private final String digestAlgorithm;
+
+    public MappedFileInput(final Path path, final String name, final String digestAlgorithm) {
+        this.path = path;
+        this.name = name;
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    @Override
+    public Source getSource() throws IOException {
+        return new StreamSource(new ByteBufferInputStream(map()), this.name);
+    }
+
+    @Override
+    public byte[] getHashCode() {
+        if (!isHashcodeComputed()) {
+            computeHashcode();
+        }
+        return super.getHashCode();
+    }
+
+    @Override
+    protected void computeHashcode() {
+        try {
+            final MessageDigest digest = StreamHelper.createDigest(this.digestAlgorithm);
+            digest.update(map());
+            setHashCode(digest.digest());
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Can not compute hashcode of %s", this.path), e);
+        }
+    }
+
+    /**
+     * Maps the file. The mapping is not retained by this input.
+     *
+     * @return the mapped buffer positioned at the beginning of the file
+     * @throws IOException on I/O errors
+     */
+    private MappedByteBuffer map() throws IOException {
+        try ( final FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ) ) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File %s is too large to be mapped", this.path));
+            }
+            setLength(size);
+            return channel.map(MapMode.READ_ONLY, 0, size);
+        }
+    }
+}
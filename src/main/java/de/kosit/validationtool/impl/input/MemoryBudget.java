@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A budget of heap memory shared by concurrently buffered inputs, e.g. the requests of the daemon. Inputs reserve
+ * memory before buffering content on the heap and spill to disk, if the budget is exhausted.
+ */
+@Slf4j
+public class MemoryBudget {
+
+    /** System property for the size of the default budget in bytes */
+    public static final String BUDGET_PROPERTY = "validator.spooling.budget";
+
+    private static final MemoryBudget DEFAULT = new MemoryBudget(determineDefaultLimit());
+
+    @Getter
+    private final long limit;
+
+    private final AtomicLong reserved = new AtomicLong();
+
+    public MemoryBudget(final long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative");
+        }
+        this.limit = limit;
+    }
+
+    /**
+     * The default budget shared by all inputs of this process. The size is a quarter of the maximum heap or the number
+     * of bytes configured by the system property {@value #BUDGET_PROPERTY}.
+     *
+     * @return the default budget
+     */
+    public static MemoryBudget getDefault() {
+        return DEFAULT;
+    }
+
+    private static long determineDefaultLimit() {
+        final String value = System.getProperty(BUDGET_PROPERTY);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (final NumberFormatException e) {
+                log.warn("Invalid value {} for {}. Using default", value, BUDGET_PROPERTY);
+            }
+        }
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /**
+     * Reserves memory, if the remaining budget is sufficient.
+     *
+     * @param bytes the number of bytes
+     * @return true if reserved
+     */
+    public boolean tryReserve(final long bytes) {
+        long current;
+        do {
+            current = this.reserved.get();
+            if (current + bytes > this.limit) {
+                return false;
+            }
+        } while (!this.reserved.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    /**
+     * Releases reserved memory.
+     *
+     * @param bytes the number of bytes
+     */
+    public void release(final long bytes) {
+        this.reserved.addAndGet(-bytes);
+    }
+
+    /**
+     * The currently reserved memory.
+     *
+     * @return the number of bytes reserved
+     */
+    public long getReserved() {
+        return this.reserved.get();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.api.Input;
+
+/**
+ * An {@link Input} for streams, which can be read only once. The stream is spooled on first access: content is buffered
+ * on the heap up to a per input limit, as long as the shared {@link MemoryBudget} permits. The remaining content is
+ * spilled to a temporary file, which is memory mapped for reading. The hashcode is computed while spooling.
+ * 
+ * In contrast to an {@link SourceInput} this input supports multiple reads. Close the input after processing to release
+ * the reserved memory and to delete the temporary file.
+ */
+@Slf4j
+@Getter
+public class SpoolingInput extends AbstractInput implements Closeable {
+
+    /** Default limit of heap memory per input */
+    public static final long DEFAULT_HEAP_LIMIT = 10L * 1024 * 1024;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Getter(AccessLevel.NONE)
+    private final InputStream stream;
+
+    private final String name;
+
+    private final String digestAlgorithm;
+
+    private final long heapLimit;
+
+    @Getter(AccessLevel.NONE)
+    private final MemoryBudget budget;
+
+    @Getter(AccessLevel.NONE)
+    private List<byte[]> chunks;
+
+    private long reserved;
+
+    /** The temporary file, if content was spilled to disk */
+    private Path spillFile;
+
+    @Getter(AccessLevel.NONE)
+    private ByteBuffer spilled;
+
+    private boolean closed;
+
+    public SpoolingInput(final InputStream stream, final String name, final String digestAlgorithm, final long heapLimit,
+            final MemoryBudget budget) {
+        if (stream == null || budget == null) {
+            throw new IllegalArgumentException("Stream and memory budget required");
+        }
+        this.stream = stream;
+        this.name = name;
+        this.digestAlgorithm = digestAlgorithm;
+        this.heapLimit = heapLimit;
+        this.budget = budget;
+    }
+
+    @Override
+    public synchronized Source getSource() throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException(String.format("Input %s is already closed", this.name));
+        }
+        if (this.chunks == null) {
+            spool();
+        }
+        final List<InputStream> streams = new ArrayList<>();
+        this.chunks.forEach(c -> streams.add(new ByteArrayInputStream(c)));
+        if (this.spilled != null) {
+            streams.add(new ByteBufferInputStream(this.spilled.duplicate()));
+        }
+        return new StreamSource(new SequenceInputStream(Collections.enumeration(streams)), this.name);
+    }
+
+    @Override
+    public byte[] getHashCode() {
+        if (!isHashcodeComputed()) {
+            computeHashcode();
+        }
+        return super.getHashCode();
+    }
+
+    @Override
+    protected void computeHashcode() {
+        try {
+            getSource();
+        } catch (final IOException e) {
+            throw new IllegalStateException(String.format("Can not spool input %s", this.name), e);
+        }
+    }
+
+    private void spool() throws IOException {
+        final MessageDigest digest = StreamHelper.createDigest(this.digestAlgorithm);
+        final List<byte[]> heap = new ArrayList<>();
+        long length = 0;
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        try ( final InputStream in = this.stream ) {
+            int read;
+            while ((read = readChunk(in, buffer)) > 0) {
+                digest.update(buffer, 0, read);
+                length += read;
+                if (this.reserved + read <= this.heapLimit && this.budget.tryReserve(read)) {
+                    this.reserved += read;
+                    heap.add(Arrays.copyOf(buffer, read));
+                } else {
+                    length += spill(in, buffer, read, digest);
+                    break;
+                }
+            }
+        }
+        this.chunks = heap;
+        setLength(length);
+        setHashCode(digest.digest());
+    }
+
+    private long spill(final InputStream in, final byte[] buffer, final int pending, final MessageDigest digest) throws IOException {
+        this.spillFile = Files.createTempFile("validator-", ".spool");
+        log.debug("Spilling input {} to {}", this.name, this.spillFile);
+        long written = 0;
+        try ( final FileChannel channel = FileChannel.open(this.spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE) ) {
+            int read = pending;
+            do {
+                final ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                written += read;
+                read = readChunk(in, buffer);
+                if (read > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            } while (read > 0);
+            if (written > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Input %s is too large to be spooled", this.name));
+            }
+            this.spilled = channel.map(MapMode.READ_ONLY, 0, written);
+        }
+        // the first chunk was counted by the caller already
+        return written - pending;
+    }
+
+    private static int readChunk(final InputStream in, final byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * Determines whether the content was (partially) spilled to disk.
+     *
+     * @return true if spilled
+     */
+    public boolean isSpilled() {
+        return this.spillFile != null;
+    }
+
+    /**
+     * Releases the reserved memory and deletes the temporary file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        if (!isHashcodeComputed()) {
+            // never spooled
+            this.stream.close();
+        }
+        this.budget.release(this.reserved);
+        this.reserved = 0;
+        this.chunks = null;
+        this.spilled = null;
+        if (this.spillFile != null) {
+            Files.deleteIfExists(this.spillFile);
+        }
+    }
+}
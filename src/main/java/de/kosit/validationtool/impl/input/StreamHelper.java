@@ -23,11 +23,17 @@ import java.io.InputStream;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
 
+import de.kosit.validationtool.api.DigestProvider;
 import de.kosit.validationtool.api.Input;
 
 /**
@@ -112,11 +118,45 @@ public class StreamHelper {
 
     private static final int DEFAULT_BUFFER_SIZE = 4096;
 
+    private static final Map<String, DigestProvider> PROVIDERS = loadProviders();
+
     private StreamHelper() {
         // hide
     }
 
+    private static Map<String, DigestProvider> loadProviders() {
+        final Map<String, DigestProvider> providers = new ConcurrentHashMap<>();
+        providers.put(XxHash64Digest.ALGORITHM, XxHash64Digest.PROVIDER);
+        for (final DigestProvider provider : ServiceLoader.load(DigestProvider.class, StreamHelper.class.getClassLoader())) {
+            providers.put(provider.getAlgorithm().toUpperCase(Locale.ROOT), provider);
+        }
+        return providers;
+    }
+
+    /**
+     * Registers a {@link DigestProvider}. A provider registered for the same algorithm name before is replaced.
+     *
+     * @param provider the provider
+     */
+    public static void register(final DigestProvider provider) {
+        if (provider == null || StringUtils.isBlank(provider.getAlgorithm())) {
+            throw new IllegalArgumentException("A digest provider with an algorithm name is required");
+        }
+        PROVIDERS.put(provider.getAlgorithm().toUpperCase(Locale.ROOT), provider);
+    }
+
+    /**
+     * Creates a digest for the specified algorithm. Registered {@link DigestProvider DigestProviders} take precedence
+     * over the JCA algorithms.
+     *
+     * @param algorithm the name of the algorithm
+     * @return a new {@link MessageDigest}
+     */
     public static MessageDigest createDigest(final String algorithm) {
+        final DigestProvider provider = algorithm != null ? PROVIDERS.get(algorithm.toUpperCase(Locale.ROOT)) : null;
+        if (provider != null) {
+            return provider.createDigest();
+        }
         try {
             final MessageDigest digest;
             digest = MessageDigest.getInstance(algorithm);
@@ -153,6 +193,25 @@ public class StreamHelper {
         return new PeekableInputStream(stream);
     }
 
+    /**
+     * Computes the hashcode of an {@link AbstractInput input} before checking it, e.g. for looking up cached results.
+     * Unless the hashcode is already known, this reads the input once in addition to the check. {@link MappedFileInput}
+     * is hashed from its memory mapping without streaming.
+     *
+     * @param input the input, must support multiple reads
+     * @return the hashcode
+     * @throws IOException if the hashcode can not be computed
+     */
+    public static byte[] precomputeHashcode(final AbstractInput input) throws IOException {
+        if (!input.isHashcodeComputed()) {
+            input.computeHashcode();
+        }
+        if (!input.isHashcodeComputed()) {
+            throw new IOException(String.format("Can not compute hashcode of %s", input.getName()));
+        }
+        return input.getHashCode();
+    }
+
     /**
      * Drains the {@link Input} without further processing. This is useful to computing hashcode etc.
      * 
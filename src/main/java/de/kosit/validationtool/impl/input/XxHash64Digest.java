@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import java.security.MessageDigest;
+
+import de.kosit.validationtool.api.DigestProvider;
+
+/**
+ * Streaming implementation of the non-cryptographic <a href="https://github.com/Cyan4973/xxHash">xxHash64</a> hash
+ * function (seed 0) as {@link MessageDigest}. The 8 byte digest uses the canonical (big endian) representation.
+ * 
+ * xxHash64 is considerably faster than cryptographic digests and sufficient for identifying and deduplicating
+ * documents. It must not be used where collisions could be exploited.
+ */
+public class XxHash64Digest extends MessageDigest {
+
+    /** The name of the algorithm */
+    public static final String ALGORITHM = "XXH64";
+
+    /** {@link DigestProvider} for this algorithm */
+    public static final DigestProvider PROVIDER = new DigestProvider() {
+
+        @Override
+        public String getAlgorithm() {
+            return ALGORITHM;
+        }
+
+        @Override
+        public MessageDigest createDigest() {
+            return new XxHash64Digest();
+        }
+    };
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static final int STRIPE = 32;
+
+    private final byte[] buffer = new byte[STRIPE];
+
+    private int buffered;
+
+    private long total;
+
+    private long v1;
+
+    private long v2;
+
+    private long v3;
+
+    private long v4;
+
+    public XxHash64Digest() {
+        super(ALGORITHM);
+        engineReset();
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return 8;
+    }
+
+    @Override
+    protected void engineUpdate(final byte input) {
+        this.buffer[this.buffered++] = input;
+        this.total++;
+        if (this.buffered == STRIPE) {
+            processStripe(this.buffer, 0);
+            this.buffered = 0;
+        }
+    }
+
+    @Override
+    protected void engineUpdate(final byte[] input, final int offset, final int len) {
+        int pos = offset;
+        final int end = offset + len;
+        this.total += len;
+        if (this.buffered > 0) {
+            final int fill = Math.min(STRIPE - this.buffered, len);
+            System.arraycopy(input, pos, this.buffer, this.buffered, fill);
+            this.buffered += fill;
+            pos += fill;
+            if (this.buffered < STRIPE) {
+                return;
+            }
+            processStripe(this.buffer, 0);
+            this.buffered = 0;
+        }
+        while (end - pos >= STRIPE) {
+            processStripe(input, pos);
+            pos += STRIPE;
+        }
+        this.buffered = end - pos;
+        System.arraycopy(input, pos, this.buffer, 0, this.buffered);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        long h;
+        if (this.total >= STRIPE) {
+            h = Long.rotateLeft(this.v1, 1) + Long.rotateLeft(this.v2, 7) + Long.rotateLeft(this.v3, 12) + Long.rotateLeft(this.v4, 18);
+            h = mergeRound(h, this.v1);
+            h = mergeRound(h, this.v2);
+            h = mergeRound(h, this.v3);
+            h = mergeRound(h, this.v4);
+        } else {
+            h = PRIME5;
+        }
+        h += this.total;
+        int pos = 0;
+        while (this.buffered - pos >= 8) {
+            h ^= round(0, readLong(this.buffer, pos));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+            pos += 8;
+        }
+        if (this.buffered - pos >= 4) {
+            h ^= (readInt(this.buffer, pos) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            pos += 4;
+        }
+        while (pos < this.buffered) {
+            h ^= (this.buffer[pos] & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            pos++;
+        }
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        engineReset();
+        final byte[] result = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            result[i] = (byte) h;
+            h >>>= 8;
+        }
+        return result;
+    }
+
+    @Override
+    protected void engineReset() {
+        this.v1 = PRIME1 + PRIME2;
+        this.v2 = PRIME2;
+        this.v3 = 0;
+        this.v4 = -PRIME1;
+        this.buffered = 0;
+        this.total = 0;
+    }
+
+    private void processStripe(final byte[] input, final int offset) {
+        this.v1 = round(this.v1, readLong(input, offset));
+        this.v2 = round(this.v2, readLong(input, offset + 8));
+        this.v3 = round(this.v3, readLong(input, offset + 16));
+        this.v4 = round(this.v4, readLong(input, offset + 24));
+    }
+
+    private static long round(final long acc, final long input) {
+        return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+    }
+
+    private static long mergeRound(final long acc, final long value) {
+        return (acc ^ round(0, value)) * PRIME1 + PRIME4;
+    }
+
+    private static long readLong(final byte[] b, final int i) {
+        return (b[i] & 0xFFL) | (b[i + 1] & 0xFFL) << 8 | (b[i + 2] & 0xFFL) << 16 | (b[i + 3] & 0xFFL) << 24 | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40 | (b[i + 6] & 0xFFL) << 48 | (b[i + 7] & 0xFFL) << 56;
+    }
+
+    private static int readInt(final byte[] b, final int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -18,6 +18,10 @@ package de.kosit.validationtool.impl.tasks;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import javax.xml.validation.Schema;
 
 import org.apache.commons.io.FilenameUtils;
 
@@ -75,6 +79,24 @@ public interface CheckAction {
 
         private Result<Boolean, XMLSyntaxError> schemaValidationResult;
 
+        /** Schema, gegen das bereits beim Parsen validiert wurde (optional) */
+        private Schema preValidationSchema;
+
+        /** Ergebnis der Schema-Validierung beim Parsen (optional) */
+        private Result<Boolean, XMLSyntaxError> preValidationResult;
+
+        /** Anhand des Prologs vorausgewählte Szenarien (optional) */
+        private List<Scenario> preselectedScenarios;
+
+        /**
+         * Das Parser-Ergebnis ist nur ein Stub aus dem Prolog, weil bei der Vorauswahl kein Szenario passt. Der Stub
+         * wird nicht an den Report übergeben.
+         */
+        private boolean prologOnly;
+
+        /** Signalisiert einen Abbruch der Verarbeitung von außen, z.B. bei asynchroner Verarbeitung */
+        private BooleanSupplier cancellation = () -> false;
+
         public Bag(final Input input) {
             this(input, new CreateReportInput());
         }
@@ -103,6 +125,15 @@ public interface CheckAction {
             stopProcessing(msg);
         }
 
+        /**
+         * Gibt an, ob die Verarbeitung von außen abgebrochen wurde.
+         *
+         * @return true wenn abgebrochen
+         */
+        public boolean isCancelled() {
+            return this.cancellation.getAsBoolean();
+        }
+
         /**
          * Gibt den Namen des Prüflings zurück, dabei werden etwaige Pfadinformationen abgeschnitten.
          *
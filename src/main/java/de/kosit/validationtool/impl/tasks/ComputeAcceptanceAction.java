@@ -24,9 +24,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.AcceptRecommendation;
+import de.kosit.validationtool.impl.xml.CachedXPath;
 
 import net.sf.saxon.s9api.SaxonApiException;
-import net.sf.saxon.s9api.XPathSelector;
 
 /**
  * Computes a {@link AcceptRecommendation} for this instance. This is either based on an 'acceptMatch'-configuration of
@@ -45,7 +45,7 @@ public class ComputeAcceptanceAction implements CheckAction {
             return;
         }
         if (preCondtionsMatch(results)) {
-            final Optional<XPathSelector> acceptMatch = results.getScenarioSelectionResult().getObject().getAcceptSelector();
+            final Optional<CachedXPath> acceptMatch = results.getScenarioSelectionResult().getObject().getAcceptXPath();
             if (results.getSchemaValidationResult().isValid() && acceptMatch.isPresent()) {
                 evaluateAcceptanceMatch(results, acceptMatch.get());
             } else {
@@ -73,12 +73,13 @@ public class ComputeAcceptanceAction implements CheckAction {
                 .flatMap(e -> e.getActivePatternAndFiredRuleAndFailedAssert().stream()).anyMatch(FailedAssert.class::isInstance);
     }
 
-    private static void evaluateAcceptanceMatch(final Bag results, final XPathSelector selector) {
+    private static void evaluateAcceptanceMatch(final Bag results, final CachedXPath acceptMatch) {
         try {
-            selector.setContextItem(results.getReport());
-            results.setAcceptStatus(selector.effectiveBooleanValue() ? AcceptRecommendation.ACCEPTABLE : AcceptRecommendation.REJECT);
+            results.setAcceptStatus(
+                    acceptMatch.effectiveBooleanValue(results.getReport()) ? AcceptRecommendation.ACCEPTABLE : AcceptRecommendation.REJECT);
         } catch (final SaxonApiException e) {
-            final String msg = String.format("Error evaluating accept recommendation: %s", selector.getUnderlyingXPathContext().toString());
+            final String msg = String.format("Error evaluating accept recommendation: %s",
+                    results.getScenarioSelectionResult().getObject().getConfiguration().getAcceptMatch());
             log.error(msg, e);
             results.stopProcessing(msg);
         }
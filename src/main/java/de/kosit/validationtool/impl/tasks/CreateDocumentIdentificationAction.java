@@ -19,7 +19,8 @@ package de.kosit.validationtool.impl.tasks;
 import de.kosit.validationtool.model.reportInput.DocumentIdentificationType;
 
 /**
- * Creates a document identification element for the report by using the generates hash.
+ * Creates a document identification element for the report by using the generates hash. Runs after
+ * {@link DocumentParseAction}, which computes the hash while parsing the document.
  * 
  * @author Andreas Penski
  */
@@ -16,33 +16,20 @@
 
 package de.kosit.validationtool.impl.tasks;
 
-import java.io.IOException;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.util.JAXBSource;
-
-import org.xml.sax.ContentHandler;
-import org.xml.sax.DTDHandler;
-import org.xml.sax.EntityResolver;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXNotRecognizedException;
-import org.xml.sax.SAXNotSupportedException;
-import org.xml.sax.XMLReader;
-
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.impl.CollectingErrorEventHandler;
 import de.kosit.validationtool.impl.ConversionService;
+import de.kosit.validationtool.impl.ConversionService.ConversionExeption;
 import de.kosit.validationtool.impl.EngineInformation;
 import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.model.reportInput.XMLSyntaxError;
 
+import net.sf.saxon.s9api.BuildingContentHandler;
 import net.sf.saxon.s9api.DocumentBuilder;
 import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.QName;
@@ -66,6 +53,8 @@ public class CreateReportAction implements CheckAction {
 
     private static final String ERROR_MESSAGE_ELEMENT = "error-message";
 
+    private static final String NOT_PARSED_ELEMENT = "document-not-parsed";
+
     private final Processor processor;
 
     private final ConversionService conversionService;
@@ -83,15 +72,21 @@ public class CreateReportAction implements CheckAction {
         final DocumentBuilder documentBuilder = this.processor.newDocumentBuilder();
         try {
 
-            final XdmNode parsedDocument = results.getParserResult().isValid() ? results.getParserResult().getObject()
-                    : createErrorInformation(results.getParserResult().getErrors());
+            final XdmNode parsedDocument;
+            if (!results.getParserResult().isValid()) {
+                parsedDocument = createErrorInformation(results.getParserResult().getErrors());
+            } else if (results.isPrologOnly()) {
+                // the stub of the pre-selection must not appear as the submitted document
+                parsedDocument = createNotParsedInformation(results);
+            } else {
+                parsedDocument = results.getParserResult().getObject();
+            }
 
-            final Marshaller marshaller = this.conversionService.getJaxbContext().createMarshaller();
-            final JAXBSource source = new JAXBSource(marshaller, results.getReportInput());
-            // wrap to circumvent inconsistency between sax and saxon
-            source.setXMLReader(new ReaderWrapper(source.getXMLReader()));
+            // marshal directly into a saxon tree, no intermediate parsing
+            final BuildingContentHandler treeBuilder = documentBuilder.newBuildingContentHandler();
+            this.conversionService.writeXml(results.getReportInput(), treeBuilder);
 
-            final XdmNode root = documentBuilder.build(source);
+            final XdmNode root = treeBuilder.getDocumentNode();
             final XsltTransformer transformer = getTransformation(results).load();
             transformer.setInitialContextNode(root);
             final CollectingErrorEventHandler e = new CollectingErrorEventHandler();
@@ -110,116 +105,22 @@ public class CreateReportAction implements CheckAction {
             transformer.transform();
             results.setReport(destination.getXdmNode());
 
-        } catch (final SaxonApiException | JAXBException e) {
+        } catch (final SaxonApiException | ConversionExeption e) {
             log.error("Error creating final report", e);
             results.stopProcessing("Can not create final report: " + e.getMessage());
         }
     }
 
+    private XdmNode createNotParsedInformation(final Bag results) throws SaxonApiException {
+        final String message = String.format("Document %s was not parsed, no scenario matches root element %s", results.getName(),
+                results.getParserResult().getObject().children().iterator().next().getNodeName());
+        final SaplingDocument doc = Saplings.doc(EngineInformation.getFrameworkNamespace());
+        return doc.withChild(Saplings.elem(NOT_PARSED_ELEMENT).withText(message)).toXdmNode(this.processor);
+    }
+
     private XdmNode createErrorInformation(final Collection<XMLSyntaxError> errors) throws SaxonApiException {
         final String message = errors.stream().map(XMLSyntaxError::getMessage).collect(Collectors.joining());
         final SaplingDocument doc = Saplings.doc(EngineInformation.getFrameworkNamespace());
         return doc.withChild(Saplings.elem(ERROR_MESSAGE_ELEMENT).withText(message)).toXdmNode(this.processor);
     }
-
-    /**
-     * Wrapper to fix some inconsistencies between sax and saxon. Saxon tries to set some properties which has no effect
-     * on {@link JAXBSource}'s XMLReader, but it throws exceptions on unknown properties. This just drops this
-     * exceptions.
-     */
-    private static class ReaderWrapper implements XMLReader {
-
-        private static final String SAX_FEATURES_NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
-
-        private static final String SAX_FEATURES_NAMESPACES = "http://xml.org/sax/features/namespaces";
-
-        private final XMLReader delegate;
-
-        public ReaderWrapper(final XMLReader xmlReader) {
-            this.delegate = xmlReader;
-        }
-
-        @Override
-        public boolean getFeature(final String name) throws SAXNotRecognizedException, SAXNotSupportedException {
-            if (SAX_FEATURES_NAMESPACES.equals(name)) {
-                return true;
-            } else if (SAX_FEATURES_NAMESPACE_PREFIXES.equals(name)) {
-                return false;
-            }
-            // just return false on unknown properties
-            return false;
-        }
-
-        @Override
-        public void setFeature(final String name, final boolean value) throws SAXNotRecognizedException, SAXNotSupportedException {
-            // this inverts the logic from JaxbSource pseude parser
-            if (name.equals(SAX_FEATURES_NAMESPACES) && !value) {
-                throw new SAXNotRecognizedException(name);
-            }
-            if (name.equals(SAX_FEATURES_NAMESPACE_PREFIXES) && value) {
-                throw new SAXNotRecognizedException(name);
-            }
-        }
-
-        @Override
-        public Object getProperty(final String name) throws SAXNotRecognizedException, SAXNotSupportedException {
-            return this.delegate.getProperty(name);
-        }
-
-        @Override
-        public void setProperty(final String name, final Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
-            this.delegate.setProperty(name, value);
-        }
-
-        @Override
-        public EntityResolver getEntityResolver() {
-            return this.delegate.getEntityResolver();
-        }
-
-        @Override
-        public void setEntityResolver(final EntityResolver resolver) {
-            this.delegate.setEntityResolver(resolver);
-        }
-
-        @Override
-        public DTDHandler getDTDHandler() {
-            return this.delegate.getDTDHandler();
-        }
-
-        @Override
-        public void setDTDHandler(final DTDHandler handler) {
-            this.delegate.setDTDHandler(handler);
-        }
-
-        @Override
-        public ContentHandler getContentHandler() {
-            return this.delegate.getContentHandler();
-        }
-
-        @Override
-        public void setContentHandler(final ContentHandler handler) {
-            this.delegate.setContentHandler(handler);
-        }
-
-        @Override
-        public ErrorHandler getErrorHandler() {
-            return this.delegate.getErrorHandler();
-        }
-
-        @Override
-        public void setErrorHandler(final ErrorHandler handler) {
-            this.delegate.setErrorHandler(handler);
-        }
-
-        @Override
-        public void parse(final InputSource input) throws IOException, SAXException {
-            this.delegate.parse(input);
-        }
-
-        @Override
-        public void parse(final String systemId) throws IOException, SAXException {
-            this.delegate.parse(systemId);
-        }
-    }
-
 }
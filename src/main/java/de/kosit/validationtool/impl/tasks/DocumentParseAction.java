@@ -17,15 +17,34 @@
 package de.kosit.validationtool.impl.tasks;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
-import lombok.RequiredArgsConstructor;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.impl.DocumentProlog;
+import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.ScenarioRepository;
 import de.kosit.validationtool.impl.input.XdmNodeInput;
 import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.impl.xml.ProcessorProvider;
 import de.kosit.validationtool.model.reportInput.ValidationResultsWellformedness;
 import de.kosit.validationtool.model.reportInput.XMLSyntaxError;
 import de.kosit.validationtool.model.reportInput.XMLSyntaxErrorSeverity;
@@ -41,11 +60,34 @@ import net.sf.saxon.s9api.XdmNode;
  * @author Andreas Penski
  */
 @Slf4j
-@RequiredArgsConstructor
 public class DocumentParseAction implements CheckAction {
 
+    @Getter(AccessLevel.PROTECTED)
     private final Processor processor;
 
+    /** Repository für die Vorauswahl der Szenarien anhand des Prologs, optional */
+    @Getter(AccessLevel.PROTECTED)
+    private final ScenarioRepository repository;
+
+    private final SAXParserFactory parserFactory = ProcessorProvider.createSecureParserFactory();
+
+    public DocumentParseAction(final Processor processor) {
+        this(processor, null);
+    }
+
+    /**
+     * Erzeugt eine Instanz mit Vorauswahl der Szenarien. Vor dem vollständigen Parsen wird der Prolog des Dokuments
+     * gelesen. Passt kein Szenario, wird auf den Aufbau des Dokumentbaums verzichtet und nur der Prolog als Dokument
+     * geliefert. Die Wohlgeformtheit wird dennoch für das gesamte Dokument geprüft.
+     *
+     * @param processor der Prozessor
+     * @param repository das Repository für die Vorauswahl, optional
+     */
+    public DocumentParseAction(final Processor processor, final ScenarioRepository repository) {
+        this.processor = processor;
+        this.repository = repository;
+    }
+
     /**
      * Parsed und überprüft ein übergebenes Dokument darauf ob es well-formed ist. Dies stellt den ersten
      * Verarbeitungsschritt des Prüf-Tools dar. Diese Funktion verzichtet explizit auf die Validierung gegenüber einem
@@ -55,6 +97,17 @@ public class DocumentParseAction implements CheckAction {
      * @return Ergebnis des Parsings inklusive etwaiger Fehler
      */
     public Result<XdmNode, XMLSyntaxError> parseDocument(final Input content) {
+        return parseDocument(content, null);
+    }
+
+    /**
+     * Parsed das Dokument im Kontext einer Prüfung.
+     *
+     * @param content ein Dokument
+     * @param results die Informationssammlung der Prüfung, optional
+     * @return Ergebnis des Parsings inklusive etwaiger Fehler
+     */
+    protected Result<XdmNode, XMLSyntaxError> parseDocument(final Input content, final Bag results) {
         if (content == null) {
             throw new IllegalArgumentException("Input may not be null");
         }
@@ -65,12 +118,10 @@ public class DocumentParseAction implements CheckAction {
                 // parsing not neccessary
                 result = new Result<>(((XdmNodeInput) content).getNode());
             } else {
-                final DocumentBuilder builder = this.processor.newDocumentBuilder();
-                builder.setLineNumbering(true);
-                final XdmNode doc = builder.build(content.getSource());
+                final XdmNode doc = parse(content.getSource(), results);
                 result = new Result<>(doc, Collections.emptyList());
             }
-        } catch (final SaxonApiException | IOException e) {
+        } catch (final SaxonApiException | SAXException | IOException e) {
             log.debug("Exception while parsing {}", content.getName(), e);
             final XMLSyntaxError error = new XMLSyntaxError();
             error.setSeverityCode(XMLSyntaxErrorSeverity.SEVERITY_FATAL_ERROR);
@@ -81,13 +132,130 @@ public class DocumentParseAction implements CheckAction {
         return result;
     }
 
+    /**
+     * Parsed die Quelle. Streams werden dabei auch im Fehlerfall vollständig gelesen und anschließend geschlossen. Die
+     * Prüfsumme des Dokuments wird beim Lesen des Streams berechnet und ist damit nach dem Parsen vollständig, ohne
+     * dass das Dokument für die Identifikation ein zweites Mal gelesen werden muss.
+     *
+     * @param source die Quelle des Dokuments
+     * @param results die Informationssammlung der Prüfung, optional
+     * @return der Dokumentbaum
+     * @throws SaxonApiException bei Parsingfehlern
+     * @throws SAXException bei Parsingfehlern
+     * @throws IOException bei I/O-Fehlern
+     */
+    private XdmNode parse(final Source source, final Bag results) throws SaxonApiException, SAXException, IOException {
+        if (!(source instanceof StreamSource) || ((StreamSource) source).getInputStream() == null) {
+            return build(source, results);
+        }
+        try ( final InputStream stream = ((StreamSource) source).getInputStream() ) {
+            try {
+                // the parser must not close the stream before it is read completely
+                return build(new StreamSource(CloseShieldInputStream.wrap(stream), source.getSystemId()), results);
+            } finally {
+                consume(stream, source.getSystemId());
+            }
+        }
+    }
+
+    private static void consume(final InputStream stream, final String name) {
+        try {
+            IOUtils.consume(stream);
+        } catch (final IOException e) {
+            log.debug("Can not read remaining content of {}", name, e);
+        }
+    }
+
+    /**
+     * Erzeugt den Dokumentbaum aus der Quelle.
+     *
+     * @param source die Quelle des Dokuments
+     * @param results die Informationssammlung der Prüfung, optional
+     * @return der Dokumentbaum bzw. nur der Prolog, wenn bei der Vorauswahl kein Szenario passt
+     * @throws SaxonApiException bei Parsingfehlern
+     * @throws SAXException bei Parsingfehlern
+     * @throws IOException bei I/O-Fehlern
+     */
+    protected XdmNode build(final Source source, final Bag results) throws SaxonApiException, SAXException, IOException {
+        if (this.repository == null || results == null || !(source instanceof StreamSource)
+                || ((StreamSource) source).getInputStream() == null) {
+            return buildTree(source);
+        }
+        try ( final PushbackInputStream stream = new PushbackInputStream(((StreamSource) source).getInputStream(),
+                DocumentProlog.PREFIX_SIZE) ) {
+            final DocumentProlog prolog = DocumentProlog.read(stream);
+            final List<Scenario> candidates = this.repository.preselectScenarios(prolog);
+            results.setPreselectedScenarios(candidates);
+            final XdmNode stub = candidates.isEmpty() ? prolog.createStub(this.processor) : null;
+            if (stub != null) {
+                log.info("No scenario matches root element {} of {}. Skipping tree building", prolog.getRootElement(), results.getName());
+                checkWellformedness(stream, source.getSystemId());
+                results.setPrologOnly(true);
+                return stub;
+            }
+            return build(new StreamSource(stream, source.getSystemId()), candidates, results);
+        }
+    }
+
+    /**
+     * Erzeugt den Dokumentbaum aus der Quelle für die vorausgewählten Szenarien.
+     *
+     * @param source die Quelle des Dokuments, der Prolog ist bereits gelesen
+     * @param candidates die vorausgewählten Szenarien, nicht leer
+     * @param results die Informationssammlung der Prüfung
+     * @return der Dokumentbaum
+     * @throws SaxonApiException bei Parsingfehlern
+     * @throws SAXException bei Parsingfehlern
+     * @throws IOException bei I/O-Fehlern
+     */
+    protected XdmNode build(final StreamSource source, final List<Scenario> candidates, final Bag results)
+            throws SaxonApiException, SAXException, IOException {
+        return buildTree(source);
+    }
+
+    /**
+     * Prüft die Wohlgeformtheit des Dokuments ohne einen Dokumentbaum aufzubauen.
+     *
+     * @param stream das Dokument
+     * @param systemId die System-Id des Dokuments
+     * @throws SAXException wenn das Dokument nicht wohlgeformt ist
+     * @throws IOException bei I/O-Fehlern
+     */
+    private void checkWellformedness(final InputStream stream, final String systemId) throws SAXException, IOException {
+        final InputSource inputSource = new InputSource(stream);
+        inputSource.setSystemId(systemId);
+        createParser().parse(inputSource);
+    }
+
+    /**
+     * Erzeugt einen abgesicherten SAX-Parser.
+     *
+     * @return der Parser
+     * @throws SAXException wenn kein Parser erzeugt werden kann
+     */
+    protected XMLReader createParser() throws SAXException {
+        try {
+            synchronized (this.parserFactory) {
+                return this.parserFactory.newSAXParser().getXMLReader();
+            }
+        } catch (final ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private XdmNode buildTree(final Source source) throws SaxonApiException {
+        final DocumentBuilder builder = this.processor.newDocumentBuilder();
+        builder.setLineNumbering(true);
+        return builder.build(source);
+    }
+
     private boolean hasCompatibleConfiguration(final XdmNodeInput content) {
         return content.getNode().getProcessor().getUnderlyingConfiguration().isCompatible(this.processor.getUnderlyingConfiguration());
     }
 
     @Override
     public void check(final Bag results) {
-        final Result<XdmNode, XMLSyntaxError> parserResult = parseDocument(results.getInput());
+        final Result<XdmNode, XMLSyntaxError> parserResult = parseDocument(results.getInput(), results);
         final ValidationResultsWellformedness v = new ValidationResultsWellformedness();
         results.setParserResult(parserResult);
         v.getXmlSyntaxError().addAll(parserResult.getErrors());
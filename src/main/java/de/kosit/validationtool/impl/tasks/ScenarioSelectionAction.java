@@ -16,9 +16,12 @@
 
 package de.kosit.validationtool.impl.tasks;
 
+import java.util.List;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import de.kosit.validationtool.impl.Futures;
 import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.impl.ScenarioRepository;
 import de.kosit.validationtool.impl.model.Result;
@@ -41,13 +44,21 @@ public class ScenarioSelectionAction implements CheckAction {
     @Override
     public void check(final Bag results) {
         final CreateReportInput report = results.getReportInput();
-        final Result<Scenario, String> scenarioTypeResult;
+        Result<Scenario, String> scenarioTypeResult;
 
-        if (results.getParserResult().isValid()) {
-            scenarioTypeResult = determineScenario(results.getParserResult().getObject());
+        final List<Scenario> preselected = results.getPreselectedScenarios();
+        if (preselected != null && preselected.isEmpty()) {
+            // rejected by pre-selection, only the prolog is available
+            scenarioTypeResult = new Result<>(this.repository.getFallbackScenario());
+        } else if (results.getParserResult().isValid()) {
+            scenarioTypeResult = determineScenario(results.getParserResult().getObject(), preselected);
         } else {
             scenarioTypeResult = new Result<>(this.repository.getFallbackScenario());
         }
+        if (!initialize(results, scenarioTypeResult.getObject())) {
+            // the following steps must not use the broken scenario
+            scenarioTypeResult = new Result<>(this.repository.getFallbackScenario());
+        }
         results.setScenarioSelectionResult(scenarioTypeResult);
         if (!scenarioTypeResult.getObject().isFallback()) {
             report.setScenario(scenarioTypeResult.getObject().getConfiguration());
@@ -57,8 +68,23 @@ public class ScenarioSelectionAction implements CheckAction {
         }
     }
 
-    private Result<Scenario, String> determineScenario(final XdmNode document) {
-        final Result<Scenario, String> result = this.repository.selectScenario(document);
+    private static boolean initialize(final Bag results, final Scenario scenario) {
+        try {
+            // compiles lazily initialized scenarios on first use
+            scenario.initialize();
+            return true;
+        } catch (final RuntimeException e) {
+            // e.g. compilation errors, possibly wrapped by the concurrent compilation
+            final RuntimeException cause = Futures.unwrap(e);
+            log.error("Error initializing scenario {}", scenario.getName(), cause);
+            results.stopProcessing(String.format("Can not initialize scenario %s: %s", scenario.getName(), cause.getMessage()));
+            return false;
+        }
+    }
+
+    private Result<Scenario, String> determineScenario(final XdmNode document, final List<Scenario> preselected) {
+        final Result<Scenario, String> result = preselected != null ? this.repository.selectScenario(document, preselected)
+                : this.repository.selectScenario(document);
         if (result.isInvalid()) {
             return new Result<>(this.repository.getFallbackScenario());
         }
@@ -16,51 +16,39 @@
 
 package de.kosit.validationtool.impl.tasks;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Path;
 
 import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.validation.Validator;
 
-import org.apache.commons.io.FileUtils;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import lombok.AccessLevel;
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.api.Input;
 import de.kosit.validationtool.impl.CollectingErrorEventHandler;
 import de.kosit.validationtool.impl.Scenario;
-import de.kosit.validationtool.impl.input.AbstractInput;
+import de.kosit.validationtool.impl.ValidatorPool;
 import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.impl.xml.XdmNodeReader;
 import de.kosit.validationtool.model.reportInput.CreateReportInput;
 import de.kosit.validationtool.model.reportInput.ValidationResultsXmlSchema;
 import de.kosit.validationtool.model.reportInput.XMLSyntaxError;
 
 import net.sf.saxon.s9api.Processor;
-import net.sf.saxon.s9api.SaxonApiException;
-import net.sf.saxon.s9api.Serializer;
 import net.sf.saxon.s9api.XdmNode;
 
 /**
  * Schema valiation of the {@link Input} with the schema of the supplied scenario. This implementation is based on JDK
  * functionality and therefore needs a {@link Source} to do the actual validation. Since we base the validator on Saxon
  * HE functionality, we have no support for schema in Saxon (e.g. the in memory version of the document is not
- * schema-aware) and need to re-read the actual source.
+ * schema-aware).
  *
- * Since the actual {@link Input} implementation may not be read twice, we must serialize the previously read document.
- * This implementation tries to do the validation in an efficient manner. If possible the source is read a second time
- * to validate. If not, the source is serialized to the heap upon re-read/validaiton up to a configurable file size. The
- * document is serialized to a temporary file otherwise.
+ * The previously parsed document is replayed as SAX events to the validator, so the {@link Input} is not read a second
+ * time. This avoids serializing and re-parsing the document. Line numbers are preserved by the tree.
  * 
  * @author Andreas Penski
  */
@@ -68,87 +56,20 @@ import net.sf.saxon.s9api.XdmNode;
 @RequiredArgsConstructor
 public class SchemaValidationAction implements CheckAction {
 
-    @RequiredArgsConstructor
-    private static class ByteArraySerializedDocument implements SerializedDocument {
-
-        private byte[] bytes;
-
-        private final Processor processor;
-
-        @Override
-        public void serialize(final XdmNode node) throws SaxonApiException, IOException {
-            try ( final ByteArrayOutputStream out = new ByteArrayOutputStream() ) {
-                final Serializer serializer = this.processor.newSerializer();
-                serializer.setOutputStream(out);
-                serializer.serializeNode(node);
-                serializer.close();
-                this.bytes = out.toByteArray();
-            }
-        }
-
-        @Override
-        public void close() {
-            // nothing do do
-        }
-
-        @Override
-        public InputStream openStream() {
-            return new ByteArrayInputStream(this.bytes);
-        }
-    }
-
-    private static class FileSerializedDocument implements SerializedDocument {
-
-        private final Path file;
-
-        private final Processor processor;
-
-        FileSerializedDocument(final Processor processor) throws IOException {
-            this.file = Files.createTempFile("validator", ".xml");
-            this.processor = processor;
-        }
-
-        @Override
-        public void serialize(final XdmNode node) throws SaxonApiException, IOException {
-            try ( final OutputStream out = Files.newOutputStream(this.file) ) {
-                final Serializer serializer = this.processor.newSerializer();
-                serializer.setOutputStream(out);
-                serializer.serializeNode(node);
-                serializer.close();
-            }
-        }
-
-        @Override
-        public void close() throws IOException {
-            Files.deleteIfExists(this.file);
-        }
-
-        @Override
-        public InputStream openStream() throws IOException {
-            return Files.newInputStream(this.file);
-        }
-    }
-
-    private static final Long BA_LIMIT = 10L;
-
-    private static final String LIMIT_PARAMETER = "schema.validation.inmem.limit";
-
     private final Processor processor;
 
-    @Setter(AccessLevel.PACKAGE)
-    @Getter
-    private long inMemoryLimit = Long.parseLong(System.getProperty(LIMIT_PARAMETER, BA_LIMIT.toString())) * FileUtils.ONE_MB;
-
     private Result<Boolean, XMLSyntaxError> validate(final Bag results, final Scenario scenario) {
         log.debug("Validating document using scenario {}", scenario.getConfiguration().getName());
         final CollectingErrorEventHandler errorHandler = new CollectingErrorEventHandler();
-        try ( final SourceProvider validateInput = resolveSource(results) ) {
-
-            final Validator validator = scenario.getFactory().createValidator(scenario.getSchema());
+        try {
+            final ValidatorPool pool = scenario.getValidatorPool();
+            final Validator validator = pool.borrow();
             validator.setErrorHandler(errorHandler);
-            validator.validate(validateInput.getSource());
+            validator.validate(resolveSource(results));
+            // failed instances are not returned to the pool
+            pool.release(validator);
             return new Result<>(!errorHandler.hasErrors(), errorHandler.getErrors());
-        } catch (final SAXException | SaxonApiException | IOException e) {
+        } catch (final SAXException | IOException e) {
             final String msg = String.format("Error processing schema validation for scenario %s", scenario.getConfiguration().getName());
             log.error(msg, e);
             results.addProcessingError(msg);
@@ -161,7 +82,14 @@ public class SchemaValidationAction implements CheckAction {
         final CreateReportInput report = results.getReportInput();
         final Scenario scenario = results.getScenarioSelectionResult().getObject();
 
-        final Result<Boolean, XMLSyntaxError> validateResult = validate(results, scenario);
+        final Result<Boolean, XMLSyntaxError> validateResult;
+        if (results.getPreValidationResult() != null && results.getPreValidationSchema() == scenario.getSchema()) {
+            // already validated while parsing
+            log.debug("Using schema validation result from parsing for scenario {}", scenario.getName());
+            validateResult = results.getPreValidationResult();
+        } else {
+            validateResult = validate(results, scenario);
+        }
 
         results.setSchemaValidationResult(validateResult);
         final ValidationResultsXmlSchema result = new ValidationResultsXmlSchema();
@@ -173,28 +101,15 @@ public class SchemaValidationAction implements CheckAction {
 
     }
 
-    private SourceProvider resolveSource(final Bag results) throws IOException, SaxonApiException {
-        final SourceProvider source;
-        if (results.getInput() instanceof AbstractInput && (((AbstractInput) results.getInput()).supportsMultipleReads())) {
-            source = () -> results.getInput().getSource();
-        } else {
-            source = serialize(results.getInput(), results.getParserResult().getObject());
-        }
-        return source;
-
-    }
-
-    @SuppressWarnings("squid:S2095") // intentionally return open stream/autoclosable here
-    private SerializedDocument serialize(final Input input, final XdmNode object) throws IOException, SaxonApiException {
-        final SerializedDocument doc;
-        if (input instanceof AbstractInput && ((AbstractInput) input).getLength() < getInMemoryLimit()) {
-
-            doc = new ByteArraySerializedDocument(this.processor);
-        } else {
-            doc = new FileSerializedDocument(this.processor);
+    private Source resolveSource(final Bag results) throws IOException {
+        final XdmNode document = results.getParserResult() != null ? results.getParserResult().getObject() : null;
+        if (document == null) {
+            // not parsed before
+            return results.getInput().getSource();
         }
-        doc.serialize(object);
-        return doc;
+        // replay the parsed document
+        final InputSource inputSource = new InputSource(document.getBaseURI() != null ? document.getBaseURI().toASCIIString() : null);
+        return new SAXSource(new XdmNodeReader(this.processor, document), inputSource);
     }
 
     @Override
@@ -206,27 +121,4 @@ public class SchemaValidationAction implements CheckAction {
         return results.getScenarioSelectionResult() == null || results.getScenarioSelectionResult().getObject().getSchema() == null;
     }
 
-    private interface SourceProvider extends AutoCloseable {
-
-        Source getSource() throws IOException;
-
-        @Override
-        default void close() throws IOException {
-            // nothing
-        }
-    }
-
-    private interface SerializedDocument extends AutoCloseable, SourceProvider {
-
-        void serialize(XdmNode node) throws SaxonApiException, IOException;
-
-        InputStream openStream() throws IOException;
-
-        @Override
-        default Source getSource() throws IOException {
-            return new StreamSource(openStream());
-        }
-
-    }
-
 }
@@ -16,27 +16,32 @@
 
 package de.kosit.validationtool.impl.tasks;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
-import javax.xml.transform.dom.DOMSource;
+import javax.xml.bind.UnmarshallerHandler;
 
 import org.oclc.purl.dsdl.svrl.SchematronOutput;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import de.kosit.validationtool.impl.CollectingErrorEventHandler;
 import de.kosit.validationtool.impl.ConversionService;
+import de.kosit.validationtool.impl.Futures;
 import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.impl.Scenario.Transformation;
-import de.kosit.validationtool.model.reportInput.CreateReportInput;
+import de.kosit.validationtool.impl.model.Result;
 import de.kosit.validationtool.model.reportInput.ValidationResultsSchematron;
 import de.kosit.validationtool.model.reportInput.ValidationResultsSchematron.Results;
 
-import net.sf.saxon.dom.NodeOverNodeInfo;
+import net.sf.saxon.s9api.SAXDestination;
 import net.sf.saxon.s9api.SaxonApiException;
-import net.sf.saxon.s9api.XdmDestination;
 import net.sf.saxon.s9api.XdmNode;
 import net.sf.saxon.s9api.XsltTransformer;
 
@@ -51,11 +56,45 @@ public class SchematronValidationAction implements CheckAction {
 
     private final ConversionService conversionService;
 
-    private List<ValidationResultsSchematron> validate(final Bag results, final XdmNode document, final Scenario scenario) {
-        return scenario.getSchematronValidations().stream().map(v -> validate(scenario, results, document, v)).collect(Collectors.toList());
+    /**
+     * Optionaler {@link Executor} für die parallele Ausführung mehrerer Schematron Validierungen eines Szenarios. Ohne
+     * Executor erfolgt die Ausführung sequentiell.
+     */
+    @Getter
+    @Setter
+    private Executor executor;
+
+    /**
+     * Führt die Schematron Validierungen des Szenarios aus, ohne die Informationssammlung zu verändern.
+     *
+     * @param document das zu prüfende Dokument
+     * @param scenario das Szenario
+     * @return die Ergebnisse in der Reihenfolge der Deklaration
+     */
+    List<Result<ValidationResultsSchematron, String>> validate(final XdmNode document, final Scenario scenario) {
+        final List<Transformation> validations = scenario.getSchematronValidations();
+        if (this.executor == null || validations.size() < 2) {
+            return validations.stream().map(v -> validate(scenario, document, v)).collect(Collectors.toList());
+        }
+        final List<CompletableFuture<Result<ValidationResultsSchematron, String>>> futures = validations.stream()
+                .map(v -> CompletableFuture.supplyAsync(() -> validate(scenario, document, v), this.executor)).collect(Collectors.toList());
+        // join in declaration order
+        return futures.stream().map(Futures::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Übernimmt die Ergebnisse der Schematron Validierungen in die Informationssammlung.
+     *
+     * @param results die Informationssammlung
+     * @param validations die Ergebnisse der Schematron Validierungen
+     */
+    static void apply(final Bag results, final List<Result<ValidationResultsSchematron, String>> validations) {
+        validations.forEach(r -> r.getErrors().forEach(results::addProcessingError));
+        results.getReportInput().getValidationResultsSchematron()
+                .addAll(validations.stream().map(Result::getObject).collect(Collectors.toList()));
     }
 
-    private ValidationResultsSchematron validate(final Scenario scenario, final Bag results, final XdmNode document,
+    private Result<ValidationResultsSchematron, String> validate(final Scenario scenario, final XdmNode document,
             final Transformation validation) {
         final ValidationResultsSchematron s = new ValidationResultsSchematron();
         s.setResource(validation.getResourceType());
@@ -66,25 +105,24 @@ public class SchematronValidationAction implements CheckAction {
             final CollectingErrorEventHandler e = new CollectingErrorEventHandler();
             transformer.setMessageListener(e);
 
-            final XdmDestination result = new XdmDestination();
-            transformer.setDestination(result);
+            // SVRL wird direkt in JAXB-Objekte überführt, ohne Zwischenbaum
+            final UnmarshallerHandler handler = this.conversionService.createUnmarshallerHandler();
+            transformer.setDestination(new SAXDestination(handler));
             transformer.setInitialContextNode(document);
             transformer.transform();
 
             final ValidationResultsSchematron.Results r = new ValidationResultsSchematron.Results();
-            r.setSchematronOutput(this.conversionService.readDocument(
-                    new DOMSource(NodeOverNodeInfo.wrap(result.getXdmNode().getUnderlyingNode()).getOwnerDocument()),
-                    SchematronOutput.class));
+            r.setSchematronOutput(this.conversionService.readResult(handler, SchematronOutput.class));
             s.setResults(r);
+            return new Result<>(s);
 
         } catch (final SaxonApiException e) {
             final String msg = String.format("Error processing schematron validation %s. Error is %s",
                     validation.getResourceType().getName(), e.getMessage());
             log.error(msg, e);
-            results.addProcessingError(msg);
             s.setResults(createErrorResult());
+            return new Result<>(s, Collections.singletonList(msg));
         }
-        return s;
     }
 
     private static Results createErrorResult() {
@@ -95,10 +133,7 @@ public class SchematronValidationAction implements CheckAction {
 
     @Override
     public void check(final Bag results) {
-        final CreateReportInput report = results.getReportInput();
-        final List<ValidationResultsSchematron> validationResult = validate(results, results.getParserResult().getObject(),
-                results.getScenarioSelectionResult().getObject());
-        report.getValidationResultsSchematron().addAll(validationResult);
+        apply(results, validate(results.getParserResult().getObject(), results.getScenarioSelectionResult().getObject()));
     }
 
     @Override
@@ -110,7 +145,7 @@ public class SchematronValidationAction implements CheckAction {
         return results.getSchemaValidationResult() == null || results.getSchemaValidationResult().isInvalid();
     }
 
-    private static boolean hasNoSchematrons(final Scenario object) {
+    static boolean hasNoSchematrons(final Scenario object) {
         return object.getSchematronValidations().isEmpty();
     }
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.tasks;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.impl.CollectingErrorEventHandler;
+import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.ScenarioRepository;
+import de.kosit.validationtool.impl.ValidatorPool;
+import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.model.scenarios.ResourceType;
+import de.kosit.validationtool.model.scenarios.ValidateWithXmlSchema;
+
+import net.sf.saxon.s9api.BuildingContentHandler;
+import net.sf.saxon.s9api.DocumentBuilder;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Parses the document and validates it against the XML schema in a single pass. The scenarios are preselected from the
+ * prolog of the document in advance (see {@link DocumentParseAction}). If all preselected scenarios share the same
+ * {@link Schema}, a single SAX parse feeds both the schema {@link Validator} and Saxon's tree builder. The validation
+ * result is stored in the {@link Bag} and reused by {@link SchemaValidationAction}, if the finally selected scenario
+ * uses the same schema.
+ *
+ * Falls back to the standard parsing of {@link DocumentParseAction} otherwise.
+ */
+@Slf4j
+public class SinglePassParseAction extends DocumentParseAction {
+
+    /**
+     * A lexical event, which may throw a {@link SAXException}.
+     */
+    @FunctionalInterface
+    private interface LexicalEvent {
+
+        void accept(LexicalHandler handler) throws SAXException;
+    }
+
+    /**
+     * Forwards all content and lexical events (e.g. comments) to an additional {@link ContentHandler}.
+     */
+    private static class TeeFilter extends XMLFilterImpl implements LexicalHandler {
+
+        private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+        private final ContentHandler tee;
+
+        private LexicalHandler lexicalHandler;
+
+        TeeFilter(final XMLReader parent, final ContentHandler tee) {
+            super(parent);
+            this.tee = tee;
+        }
+
+        @Override
+        public void setProperty(final String name, final Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
+            if (LEXICAL_HANDLER.equals(name)) {
+                this.lexicalHandler = (LexicalHandler) value;
+            } else {
+                super.setProperty(name, value);
+            }
+        }
+
+        @Override
+        public Object getProperty(final String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+            return LEXICAL_HANDLER.equals(name) ? this.lexicalHandler : super.getProperty(name);
+        }
+
+        @Override
+        public void parse(final InputSource input) throws SAXException, IOException {
+            getParent().setProperty(LEXICAL_HANDLER, this);
+            super.parse(input);
+        }
+
+        private void lexical(final LexicalEvent event) throws SAXException {
+            if (this.tee instanceof LexicalHandler) {
+                event.accept((LexicalHandler) this.tee);
+            }
+            if (this.lexicalHandler != null) {
+                event.accept(this.lexicalHandler);
+            }
+        }
+
+        @Override
+        public void comment(final char[] ch, final int start, final int length) throws SAXException {
+            lexical(h -> h.comment(ch, start, length));
+        }
+
+        @Override
+        public void startCDATA() throws SAXException {
+            lexical(LexicalHandler::startCDATA);
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            lexical(LexicalHandler::endCDATA);
+        }
+
+        @Override
+        public void startEntity(final String name) throws SAXException {
+            lexical(h -> h.startEntity(name));
+        }
+
+        @Override
+        public void endEntity(final String name) throws SAXException {
+            lexical(h -> h.endEntity(name));
+        }
+
+        @Override
+        public void startDTD(final String name, final String publicId, final String systemId) throws SAXException {
+            lexical(h -> h.startDTD(name, publicId, systemId));
+        }
+
+        @Override
+        public void endDTD() throws SAXException {
+            lexical(LexicalHandler::endDTD);
+        }
+
+        @Override
+        public void setDocumentLocator(final Locator locator) {
+            this.tee.setDocumentLocator(locator);
+            super.setDocumentLocator(locator);
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            this.tee.startDocument();
+            super.startDocument();
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            this.tee.endDocument();
+            super.endDocument();
+        }
+
+        @Override
+        public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+            this.tee.startPrefixMapping(prefix, uri);
+            super.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void endPrefixMapping(final String prefix) throws SAXException {
+            this.tee.endPrefixMapping(prefix);
+            super.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts) throws SAXException {
+            this.tee.startElement(uri, localName, qName, atts);
+            super.startElement(uri, localName, qName, atts);
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            this.tee.endElement(uri, localName, qName);
+            super.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) throws SAXException {
+            this.tee.characters(ch, start, length);
+            super.characters(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+            this.tee.ignorableWhitespace(ch, start, length);
+            super.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(final String target, final String data) throws SAXException {
+            this.tee.processingInstruction(target, data);
+            super.processingInstruction(target, data);
+        }
+
+        @Override
+        public void skippedEntity(final String name) throws SAXException {
+            this.tee.skippedEntity(name);
+            super.skippedEntity(name);
+        }
+    }
+
+    public SinglePassParseAction(final Processor processor, final ScenarioRepository repository) {
+        super(processor, repository);
+    }
+
+    @Override
+    protected XdmNode build(final StreamSource source, final List<Scenario> candidates, final Bag results)
+            throws SaxonApiException, SAXException, IOException {
+        final Scenario scenario = findScenario(candidates);
+        if (scenario == null) {
+            return super.build(source, candidates, results);
+        }
+        final InputSource inputSource = new InputSource(source.getInputStream());
+        inputSource.setSystemId(source.getSystemId());
+        return parseAndValidate(inputSource, scenario, results);
+    }
+
+    /**
+     * Determines a scenario whose schema is shared by all preselected scenarios. The schema references of the scenario
+     * definitions are compared, so the schemas of lazily initialized candidates are not compiled. Only the schema of
+     * the returned scenario is needed for the validation. If the schema can not be compiled, the document is parsed
+     * without validation and the scenario selection reports the failure.
+     */
+    private static Scenario findScenario(final List<Scenario> candidates) {
+        final List<String> schema = getSchemaReferences(candidates.get(0));
+        final boolean shared = !schema.isEmpty() && candidates.stream().allMatch(s -> schema.equals(getSchemaReferences(s)));
+        log.debug("Found {} candidate scenario(s). Shared schema: {}", candidates.size(), shared);
+        return shared && hasSchema(candidates.get(0)) ? candidates.get(0) : null;
+    }
+
+    private static boolean hasSchema(final Scenario scenario) {
+        try {
+            return scenario.getSchema() != null;
+        } catch (final RuntimeException e) {
+            log.warn("Can not initialize scenario {}. Parsing without schema validation", scenario.getName(), e);
+            return false;
+        }
+    }
+
+    private static List<String> getSchemaReferences(final Scenario scenario) {
+        final ValidateWithXmlSchema schema = scenario.getConfiguration().getValidateWithXmlSchema();
+        return schema == null ? Collections.emptyList()
+                : schema.getResource().stream().map(ResourceType::getLocation).collect(Collectors.toList());
+    }
+
+    private XdmNode parseAndValidate(final InputSource inputSource, final Scenario scenario, final Bag results)
+            throws SaxonApiException, SAXException, IOException {
+        final DocumentBuilder builder = getProcessor().newDocumentBuilder();
+        builder.setLineNumbering(true);
+        final BuildingContentHandler treeBuilder = builder.newBuildingContentHandler();
+
+        final ValidatorPool pool = scenario.getValidatorPool();
+        final Validator validator = pool.borrow();
+        final CollectingErrorEventHandler errorHandler = new CollectingErrorEventHandler();
+        validator.setErrorHandler(errorHandler);
+        validator.validate(new SAXSource(new TeeFilter(createParser(), treeBuilder), inputSource));
+        // failed instances are not returned to the pool
+        pool.release(validator);
+
+        results.setPreValidationSchema(scenario.getSchema());
+        results.setPreValidationResult(new Result<>(!errorHandler.hasErrors(), errorHandler.getErrors()));
+        return treeBuilder.getDocumentNode();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.tasks;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import de.kosit.validationtool.impl.Futures;
+import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.model.reportInput.ValidationResultsSchematron;
+
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Kombinierte Schema und Schematron Validierung. Die Schematron Validierungen werden spekulativ parallel zur Schema
+ * Validierung gestartet. Ist das Dokument nicht schema-valide, werden deren Ergebnisse verworfen. Das Ergebnis
+ * entspricht damit der sequentiellen Ausführung von {@link SchemaValidationAction} und
+ * {@link SchematronValidationAction}.
+ */
+@RequiredArgsConstructor
+@Getter
+@Slf4j
+public class SpeculativeValidationAction implements CheckAction {
+
+    private final SchemaValidationAction schemaValidation;
+
+    private final SchematronValidationAction schematronValidation;
+
+    private final Executor executor;
+
+    @Override
+    public void check(final Bag results) {
+        final Scenario scenario = results.getScenarioSelectionResult().getObject();
+        if (results.getParserResult() == null || results.getParserResult().isInvalid()
+                || SchematronValidationAction.hasNoSchematrons(scenario)) {
+            runSequential(results);
+            return;
+        }
+        final XdmNode document = results.getParserResult().getObject();
+        final CompletableFuture<List<Result<ValidationResultsSchematron, String>>> speculative = CompletableFuture
+                .supplyAsync(() -> this.schematronValidation.validate(document, scenario), this.executor);
+        this.schemaValidation.check(results);
+        if (this.schematronValidation.isSkipped(results)) {
+            log.debug("Discarding speculative schematron validation of {}", results.getName());
+            speculative.cancel(false);
+        } else {
+            SchematronValidationAction.apply(results, Futures.join(speculative));
+        }
+    }
+
+    private void runSequential(final Bag results) {
+        this.schemaValidation.check(results);
+        if (!this.schematronValidation.isSkipped(results)) {
+            this.schematronValidation.check(results);
+        }
+    }
+
+    @Override
+    public boolean isSkipped(final Bag results) {
+        // schematron is skipped without schema validation result
+        return this.schemaValidation.isSkipped(results);
+    }
+}
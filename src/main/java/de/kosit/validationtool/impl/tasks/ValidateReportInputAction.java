@@ -18,8 +18,6 @@ package de.kosit.validationtool.impl.tasks;
 
 import javax.xml.validation.Schema;
 
-import org.apache.commons.lang3.StringUtils;
-
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -59,7 +57,7 @@ public class ValidateReportInputAction implements CheckAction {
      */
     private <T> Result<Boolean, XMLSyntaxError> validate(final T object) {
         final CollectingErrorEventHandler h = new CollectingErrorEventHandler();
-        final String result = this.conversionService.writeXml(object, this.schema, h);
-        return new Result<>(StringUtils.isNotBlank(result), h.getErrors());
+        this.conversionService.validateXml(object, this.schema, h);
+        return new Result<>(!h.hasErrors(), h.getErrors());
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.xml;
+
+import lombok.Getter;
+
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XPathExecutable;
+import net.sf.saxon.s9api.XPathSelector;
+import net.sf.saxon.s9api.XdmItem;
+import net.sf.saxon.s9api.XdmValue;
+import net.sf.saxon.trans.XPathException;
+
+/**
+ * A compiled XPath expression with a thread-confined, reusable {@link XPathSelector}. {@link XPathExecutable#load()}
+ * allocates a new dynamic context on every call. Instead, each thread loads its selector once and reuses it for
+ * subsequent evaluations. The context item is released after each evaluation, so no documents are retained by the
+ * cached selectors.
+ */
+public class CachedXPath {
+
+    @Getter
+    private final XPathExecutable executable;
+
+    private final ThreadLocal<XPathSelector> selectors;
+
+    public CachedXPath(final XPathExecutable executable) {
+        if (executable == null) {
+            throw new IllegalArgumentException("No xpath executable supplied");
+        }
+        this.executable = executable;
+        this.selectors = ThreadLocal.withInitial(executable::load);
+    }
+
+    /**
+     * Evaluates the expression as boolean.
+     *
+     * @param contextItem the context item
+     * @return the effective boolean value
+     * @throws SaxonApiException on evaluation errors
+     */
+    public boolean effectiveBooleanValue(final XdmItem contextItem) throws SaxonApiException {
+        final XPathSelector selector = this.selectors.get();
+        try {
+            selector.setContextItem(contextItem);
+            return selector.effectiveBooleanValue();
+        } finally {
+            release(selector);
+        }
+    }
+
+    /**
+     * Evaluates the expression.
+     *
+     * @param contextItem the context item
+     * @return the result
+     * @throws SaxonApiException on evaluation errors
+     */
+    public XdmValue evaluate(final XdmItem contextItem) throws SaxonApiException {
+        final XPathSelector selector = this.selectors.get();
+        try {
+            selector.setContextItem(contextItem);
+            return selector.evaluate();
+        } finally {
+            release(selector);
+        }
+    }
+
+    private static void release(final XPathSelector selector) {
+        try {
+            selector.getUnderlyingXPathContext().setContextItem(null);
+        } catch (final XPathException e) {
+            // not thrown when clearing the context item
+            throw new IllegalStateException("Can not release context item", e);
+        }
+    }
+}
@@ -22,9 +22,13 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Result;
 import javax.xml.transform.TransformerException;
 
+import org.xml.sax.SAXException;
+
 import lombok.SneakyThrows;
 
 import net.sf.saxon.Configuration;
@@ -93,6 +97,26 @@ public class ProcessorProvider {
         return processor;
     }
 
+    /**
+     * Creates a namespace aware {@link SAXParserFactory} with the same security features as the parser used by the
+     * {@link Processor}.
+     *
+     * @return a preconfigured {@link SAXParserFactory}
+     */
+    public static SAXParserFactory createSecureParserFactory() {
+        try {
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setXIncludeAware(false);
+            factory.setFeature(FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature(DISSALLOW_DOCTYPE_DECL_FEATURE, true);
+            factory.setFeature(LOAD_EXTERNAL_DTD_FEATURE, false);
+            return factory;
+        } catch (final ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Can not create secure parser factory", e);
+        }
+    }
+
     private static Processor createProcessor() {
         final Processor processor = new Processor(false);
         // verhindere global im Prinzip alle resolving strategien
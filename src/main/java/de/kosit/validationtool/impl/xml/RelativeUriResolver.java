@@ -19,6 +19,7 @@ package de.kosit.validationtool.impl.xml;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.URI;
+import java.util.Objects;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
@@ -44,6 +45,20 @@ public class RelativeUriResolver implements URIResolver, UnparsedTextURIResolver
     /** the base uri */
     private final URI baseUri;
 
+    /**
+     * Resolvers of the same class with the same base uri are equal, so compiled artifacts are shared between
+     * repositories, see {@link de.kosit.validationtool.impl.CompiledArtifactRegistry}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        return o != null && o.getClass() == getClass() && Objects.equals(this.baseUri, ((RelativeUriResolver) o).baseUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.baseUri);
+    }
+
     @Override
     public Source resolve(final String href, final String base) throws TransformerException {
         final URI resolved = resolve(URI.create(href), URI.create(base));
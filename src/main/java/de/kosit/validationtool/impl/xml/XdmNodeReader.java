@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.xml;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.XMLReader;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SAXDestination;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * A pseudo {@link XMLReader} which does not parse anything but replays an already parsed {@link XdmNode} as SAX events.
+ * This allows JAXP components which expect a {@link javax.xml.transform.sax.SAXSource} (e.g. a
+ * {@link javax.xml.validation.Validator}) to process the in-memory tree without serializing and re-parsing it. The
+ * {@link InputSource} supplied to the parse methods is ignored.
+ */
+@RequiredArgsConstructor
+public class XdmNodeReader implements XMLReader {
+
+    private static final String SAX_FEATURES_NAMESPACES = "http://xml.org/sax/features/namespaces";
+
+    private static final String SAX_FEATURES_NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
+
+    private final Processor processor;
+
+    private final XdmNode node;
+
+    @Getter
+    @Setter
+    private ContentHandler contentHandler;
+
+    @Getter
+    @Setter
+    private ErrorHandler errorHandler;
+
+    private DTDHandler dtdHandler;
+
+    @Getter
+    @Setter
+    private EntityResolver entityResolver;
+
+    private final Map<String, Object> properties = new HashMap<>();
+
+    @Override
+    public DTDHandler getDTDHandler() {
+        return this.dtdHandler;
+    }
+
+    @Override
+    public void setDTDHandler(final DTDHandler handler) {
+        this.dtdHandler = handler;
+    }
+
+    @Override
+    public boolean getFeature(final String name) throws SAXNotRecognizedException {
+        if (SAX_FEATURES_NAMESPACES.equals(name)) {
+            return true;
+        } else if (SAX_FEATURES_NAMESPACE_PREFIXES.equals(name)) {
+            return false;
+        }
+        throw new SAXNotRecognizedException(name);
+    }
+
+    @Override
+    public void setFeature(final String name, final boolean value) throws SAXNotRecognizedException {
+        // the events are always namespace aware and without xmlns attributes
+        if (getFeature(name) != value) {
+            throw new SAXNotRecognizedException(name);
+        }
+    }
+
+    @Override
+    public Object getProperty(final String name) {
+        return this.properties.get(name);
+    }
+
+    @Override
+    public void setProperty(final String name, final Object value) {
+        // there is no real parser, so the properties have no effect
+        this.properties.put(name, value);
+    }
+
+    @Override
+    public void parse(final InputSource input) throws SAXException {
+        if (this.contentHandler == null) {
+            throw new IllegalStateException("No content handler supplied");
+        }
+        try {
+            this.processor.writeXdmValue(this.node, new SAXDestination(this.contentHandler));
+        } catch (final SaxonApiException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void parse(final String systemId) throws SAXException {
+        parse(new InputSource(systemId));
+    }
+}
@@ -20,10 +20,13 @@ import static de.kosit.validationtool.impl.Helper.ASSERTIONS;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -153,6 +156,47 @@ public class CommandlineApplicationTest {
         assertThat(CommandLine.getErrorOutput()).contains("Processing 8 object(s) completed");
     }
 
+    @Test
+    public void testValidDirectoryInputParallel() {
+        final String[] args = new String[] { "-s", Paths.get(Simple.SCENARIOS).toString(), "-o", this.output.toString(), "-r",
+                Paths.get(Simple.REPOSITORY_URI).toString(), "--parallel", "4", Paths.get(Simple.EXAMPLES).toString() };
+        CommandLineApplication.mainProgram(args);
+        assertThat(CommandLine.getErrorOutput()).contains("Processing with 4 parallel workers");
+        assertThat(CommandLine.getErrorOutput()).contains("Processing 8 object(s) completed");
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        final String[] args = new String[] { "-s", Paths.get(Simple.SCENARIOS).toString(), "-r",
+                Paths.get(Simple.REPOSITORY_URI).toString(), "--parallel", "0", Paths.get(Simple.SIMPLE_VALID).toString() };
+        CommandLineApplication.mainProgram(args);
+        assertThat(CommandLine.getErrorOutput()).contains("Number of parallel workers must be at least 1");
+        assertThat(CommandLine.getErrorOutput()).doesNotContain("Processing of 1 objects started");
+    }
+
+    @Test
+    public void testDigestAlgorithm() throws IOException {
+        final String[] args = new String[] { "-s", Paths.get(Simple.SCENARIOS).toString(), "-o", this.output.toString(), "-r",
+                Paths.get(Simple.REPOSITORY_URI).toString(), "--serialize-report-input", "--digest-algorithm", "XXH64",
+                Paths.get(Simple.SIMPLE_VALID).toString() };
+        CommandLineApplication.mainProgram(args);
+        assertThat(CommandLine.getErrorOutput()).contains(RESULT_OUTPUT);
+        try ( final Stream<Path> files = Files.list(this.output) ) {
+            final List<Path> reportInputs = files.filter(p -> !p.getFileName().toString().endsWith("-report.xml"))
+                    .collect(Collectors.toList());
+            assertThat(reportInputs).hasSize(1);
+            assertThat(new String(Files.readAllBytes(reportInputs.get(0)), StandardCharsets.UTF_8)).contains("XXH64");
+        }
+    }
+
+    @Test
+    public void testUnknownDigestAlgorithm() {
+        final String[] args = new String[] { "-s", Paths.get(Simple.SCENARIOS).toString(), "-r",
+                Paths.get(Simple.REPOSITORY_URI).toString(), "--digest-algorithm", "UNKNOWN", Paths.get(Simple.SIMPLE_VALID).toString() };
+        CommandLineApplication.mainProgram(args);
+        assertThat(CommandLine.getErrorOutput()).contains("Specified method UNKNOWN is not available");
+    }
+
     @Test
     public void testValidOutputConfiguration() throws IOException {
 
@@ -18,11 +18,20 @@ package de.kosit.validationtool.config;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
 import org.junit.Test;
 
 import de.kosit.validationtool.api.Configuration;
 import de.kosit.validationtool.impl.Helper;
 import de.kosit.validationtool.impl.ResolvingMode;
+import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.impl.xml.RemoteResolvingStrategy;
 import de.kosit.validationtool.impl.xml.StrictRelativeResolvingStrategy;
 
@@ -39,4 +48,76 @@ public class ConfigurationLoaderTest {
         final Configuration config = loader.build(Helper.getTestProcessor());
         assertThat(config.getContentRepository().getResolvingConfigurationStrategy()).isNotInstanceOf(RemoteResolvingStrategy.class);
     }
+
+    @Test
+    public void testConcurrentInitialization() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ConfigurationLoader loader = TestConfigurationFactory.loadSimpleConfiguration().setExecutor(executor);
+            final Configuration config = loader.build(Helper.getTestProcessor());
+            assertThat(config.getScenarios()).isNotEmpty();
+            config.getScenarios().forEach(s -> {
+                assertThat(s.getMatchExecutable()).isNotNull();
+                assertThat(s.getReportTransformation()).isNotNull();
+            });
+            assertThat(config.getFallbackScenario()).isNotNull();
+            final Map<?, ?> times = (Map<?, ?>) config.getAdditionalParameters().get(Keys.COMPILE_TIMES);
+            assertThat(times).isNotEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLazyInitialization() {
+        final ConfigurationLoader loader = TestConfigurationFactory.loadSimpleConfiguration().setLazyInitialization(true);
+        final Configuration config = loader.build(Helper.getTestProcessor());
+        final Scenario scenario = config.getScenarios().get(0);
+        assertThat(scenario.isInitialized()).isFalse();
+        assertThat(scenario.getMatchExecutable()).isNotNull();
+        assertThat(scenario.getReportTransformation()).isNotNull();
+        assertThat(scenario.isInitialized()).isTrue();
+    }
+
+    @Test
+    public void testWarmUp() {
+        final ConfigurationLoader loader = TestConfigurationFactory.loadSimpleConfiguration().setLazyInitialization(true);
+        final String name = loader.build(Helper.getTestProcessor()).getScenarios().get(0).getName();
+        final Configuration config = loader.setWarmUp(Arrays.asList(name, "unknown")).build(Helper.getTestProcessor());
+        assertThat(config.getScenarios().get(0).isInitialized()).isTrue();
+        assertThat(config.getScenarios().stream().skip(1).noneMatch(Scenario::isInitialized)).isTrue();
+    }
+
+    @Test
+    public void testLazyInitializationWithBoundedExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ConfigurationLoader loader = TestConfigurationFactory.loadSimpleConfiguration().setLazyInitialization(true)
+                    .setExecutor(executor);
+            final Configuration prototype = loader.build(Helper.getTestProcessor());
+            final Configuration warmedUp = loader
+                    .setWarmUp(prototype.getScenarios().stream().map(Scenario::getName).collect(Collectors.toList()))
+                    .build(Helper.getTestProcessor());
+            assertThat(warmedUp.getScenarios()).allMatch(Scenario::isInitialized);
+
+            // initialization from within the only thread of the executor
+            final Scenario scenario = loader.setWarmUp(null).build(Helper.getTestProcessor()).getScenarios().get(0);
+            final Future<?> future = executor.submit(scenario::initialize);
+            future.get(30, TimeUnit.SECONDS);
+            assertThat(scenario.isInitialized()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLazyInitializationAfterShutdown() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final Configuration config = TestConfigurationFactory.loadSimpleConfiguration().setLazyInitialization(true).setExecutor(executor)
+                .build(Helper.getTestProcessor());
+        executor.shutdownNow();
+        final Scenario scenario = config.getScenarios().get(0);
+        assertThat(scenario.getReportTransformation()).isNotNull();
+        assertThat(scenario.isInitialized()).isTrue();
+    }
 }
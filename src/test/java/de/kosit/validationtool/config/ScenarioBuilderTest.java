@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.namespace.QName;
+
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Rule;
 import org.junit.Test;
@@ -30,6 +32,7 @@ import org.junit.rules.ExpectedException;
 
 import de.kosit.validationtool.impl.ContentRepository;
 import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.MatchAnalyzer;
 import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.impl.model.Result;
 import de.kosit.validationtool.model.scenarios.NamespaceType;
@@ -154,6 +157,15 @@ public class ScenarioBuilderTest {
         assertThat(config.getDescription().getPOrOlOrUl()).isNotEmpty();
     }
 
+    @Test
+    public void testRootElementHint() {
+        final ScenarioBuilder builder = createScenario().match("//test:simple").rootElement("test:simple");
+        final Result<Scenario, String> result = builder.build(Simple.createContentRepository());
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getObject().getConfiguration().getRootElement()).isEqualTo("test:simple");
+        assertThat(MatchAnalyzer.getRootElement(result.getObject())).contains(new QName("http://validator.kosit.de/test-sample", "simple"));
+    }
+
     @Test
     public void testNoBasicAttributes() {
         final ContentRepository repository = Simple.createContentRepository();
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static de.kosit.validationtool.api.InputFactory.read;
+import static de.kosit.validationtool.impl.Helper.Simple.REJECTED;
+import static de.kosit.validationtool.impl.Helper.Simple.SIMPLE_VALID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.kosit.validationtool.api.AcceptRecommendation;
+import de.kosit.validationtool.api.Check;
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.Result;
+import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.input.ByteArrayInput;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.Serializer;
+
+/**
+ * Tests {@link CachingCheck}.
+ */
+public class CachingCheckTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DefaultCheck check;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private Check counting;
+
+    @Before
+    public void setup() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor());
+        this.check = new DefaultCheck(Helper.getTestProcessor(), config);
+        this.counting = input -> {
+            this.calls.incrementAndGet();
+            return this.check.checkInput(input);
+        };
+    }
+
+    @Test
+    public void testRepeatedInput() {
+        final CachingCheck caching = new CachingCheck(this.counting, 10, "simple");
+        final Result first = caching.checkInput(read(Paths.get(SIMPLE_VALID)));
+        final Result second = caching.checkInput(read(Paths.get(SIMPLE_VALID)));
+        assertThat(this.calls.get()).isEqualTo(1);
+        assertThat(first).isNotInstanceOf(CachedResult.class);
+        assertThat(second).isInstanceOf(CachedResult.class);
+        assertThat(((CachedResult) second).isCached()).isTrue();
+        assertThat(second.getReport()).isSameAs(first.getReport());
+        assertThat(second.getAcceptRecommendation()).isEqualTo(AcceptRecommendation.ACCEPTABLE);
+        assertThat(second.isAcceptable()).isTrue();
+        assertThat(second.isSchemaValid()).isTrue();
+
+        // different document
+        assertThat(caching.checkInput(read(Paths.get(REJECTED))).isAcceptable()).isFalse();
+        assertThat(this.calls.get()).isEqualTo(2);
+        assertThat(caching.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEviction() {
+        final CachingCheck caching = new CachingCheck(this.counting, 1, "simple");
+        caching.checkInput(read(Paths.get(SIMPLE_VALID)));
+        caching.checkInput(read(Paths.get(REJECTED)));
+        caching.checkInput(read(Paths.get(SIMPLE_VALID)));
+        assertThat(this.calls.get()).isEqualTo(3);
+        assertThat(caching.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConfigurationIdentity() {
+        final CachingCheck caching = new CachingCheck(this.check, 10);
+        assertThat(caching.getConfigurationId()).isEqualTo(new CachingCheck(this.check, 10).getConfigurationId());
+        assertThat(caching.checkInput(read(Paths.get(SIMPLE_VALID)))).isNotInstanceOf(CachedResult.class);
+        assertThat(caching.checkInput(read(Paths.get(SIMPLE_VALID)))).isInstanceOf(CachedResult.class);
+    }
+
+    @Test
+    public void testConfigurationIdentityCoversArtifacts() throws Exception {
+        final Path root = this.folder.newFolder("simple").toPath();
+        FileUtils.copyDirectory(Paths.get(Simple.ROOT).toFile(), root.toFile());
+        final String initial = identify(root);
+        assertThat(identify(root)).isEqualTo(initial);
+
+        append(root.resolve("repository/report.xsl"));
+        final String reportChanged = identify(root);
+        assertThat(reportChanged).isNotEqualTo(initial);
+        append(root.resolve("repository/simple.xsd"));
+        final String schemaChanged = identify(root);
+        assertThat(schemaChanged).isNotEqualTo(reportChanged);
+        append(root.resolve("repository/simple.xsl"));
+        assertThat(identify(root)).isNotEqualTo(schemaChanged);
+    }
+
+    private static String identify(final Path root) {
+        final Configuration config = Configuration.load(root.resolve("scenarios.xml").toUri(), root.resolve("repository").toUri())
+                .build(Helper.getTestProcessor());
+        return new CachingCheck(new DefaultCheck(Helper.getTestProcessor(), config), 10).getConfigurationId();
+    }
+
+    private static void append(final Path file) throws IOException {
+        Files.write(file, "<!-- changed -->".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    @Test
+    public void testSingleReadInput() throws Exception {
+        final CachingCheck caching = new CachingCheck(this.counting, 10, "simple");
+        for (int i = 0; i < 2; i++) {
+            try ( final InputStream stream = SIMPLE_VALID.toURL().openStream() ) {
+                assertThat(caching.checkInput(read(new StreamSource(stream), "simple", "SHA-256")).isAcceptable()).isTrue();
+            }
+        }
+        assertThat(this.calls.get()).isEqualTo(2);
+        assertThat(caching.size()).isZero();
+    }
+
+    @Test
+    public void testDiskCache() {
+        final Path directory = this.folder.getRoot().toPath().resolve("cache");
+        final CachingCheck caching = new CachingCheck(this.counting, 10, "simple");
+        caching.enableDiskCache(Helper.getTestProcessor(), directory);
+        final Result original = caching.checkInput(read(Paths.get(SIMPLE_VALID)));
+
+        final CachingCheck restarted = new CachingCheck(this.counting, 10, "simple");
+        restarted.enableDiskCache(Helper.getTestProcessor(), directory);
+        final Result restored = restarted.checkInput(read(Paths.get(SIMPLE_VALID)));
+        assertThat(this.calls.get()).isEqualTo(1);
+        assertThat(restored).isInstanceOf(CachedResult.class);
+        assertThat(restored.getAcceptRecommendation()).isEqualTo(original.getAcceptRecommendation());
+        assertThat(restored.isAcceptable()).isTrue();
+        assertThat(restored.getReport().toString()).isEqualTo(original.getReport().toString());
+
+        // other configuration
+        final CachingCheck other = new CachingCheck(this.counting, 10, "other");
+        other.enableDiskCache(Helper.getTestProcessor(), directory);
+        assertThat(other.checkInput(read(Paths.get(SIMPLE_VALID)))).isNotInstanceOf(CachedResult.class);
+        assertThat(this.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPrecomputedHashcode() throws Exception {
+        final CachingCheck caching = new CachingCheck(this.counting, 10, "simple");
+        final byte[] content = Files.readAllBytes(Paths.get(SIMPLE_VALID));
+        for (int i = 0; i < 2; i++) {
+            final Input input = new ByteArrayInput(content, "bytes", "SHA-256") {
+
+                @Override
+                public byte[] getHashCode() {
+                    // no extra calculation with warning
+                    assertThat(isHashcodeComputed()).isTrue();
+                    return super.getHashCode();
+                }
+            };
+            assertThat(caching.checkInput(input).isAcceptable()).isTrue();
+        }
+        assertThat(this.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDiskCacheWriteFailure() throws Exception {
+        final Path directory = this.folder.getRoot().toPath().resolve("cache");
+        final Processor processor = mock(Processor.class);
+        final Serializer serializer = mock(Serializer.class);
+        when(processor.newSerializer(any(OutputStream.class))).thenReturn(serializer);
+        doThrow(new SaxonApiException("failed")).when(serializer).serializeNode(any());
+        final CachingCheck caching = new CachingCheck(this.counting, 10, "simple");
+        caching.enableDiskCache(processor, directory);
+        assertThat(caching.checkInput(read(Paths.get(SIMPLE_VALID))).isAcceptable()).isTrue();
+        assertThat(caching.size()).isEqualTo(1);
+        try ( final Stream<Path> files = Files.list(directory) ) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatThrownBy(() -> new CachingCheck(null, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CachingCheck(this.check, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
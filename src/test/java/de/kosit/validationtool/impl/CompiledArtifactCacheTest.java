@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.kosit.validationtool.impl.Helper.Simple;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.XsltExecutable;
+
+/**
+ * Tests {@link CompiledArtifactCache}.
+ */
+public class CompiledArtifactCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    private CompiledArtifactCache cache;
+
+    private Processor processor;
+
+    @Before
+    public void setup() throws Exception {
+        this.directory = this.folder.newFolder("cache").toPath();
+        this.cache = new CompiledArtifactCache(this.directory);
+        this.processor = Helper.getTestProcessor();
+    }
+
+    @Test
+    public void testKey() {
+        final byte[] content = "<xsl/>".getBytes(StandardCharsets.UTF_8);
+        final String key = CompiledArtifactCache.computeKey(this.processor, content);
+        assertThat(key).hasSize(64);
+        assertThat(CompiledArtifactCache.computeKey(this.processor, content)).isEqualTo(key);
+        assertThat(CompiledArtifactCache.computeKey(this.processor, "<other/>".getBytes(StandardCharsets.UTF_8))).isNotEqualTo(key);
+    }
+
+    @Test
+    public void testDependencies() throws Exception {
+        final Path stylesheets = this.folder.newFolder("xsl").toPath();
+        final Path main = write(stylesheets.resolve("main.xsl"),
+                "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='2.0'>"
+                        + "<xsl:include href='included.xsl'/><xsl:variable name='lookup' select=\"document('lookup.xml')\"/>"
+                        + "</xsl:stylesheet>");
+        final Path included = write(stylesheets.resolve("included.xsl"),
+                "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='2.0'>"
+                        + "<xsl:import href='sub/imported.xsl'/></xsl:stylesheet>");
+        final Path imported = write(stylesheets.resolve("sub/imported.xsl"),
+                "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='2.0'/>");
+        final Path lookup = write(stylesheets.resolve("lookup.xml"), "<lookup/>");
+        final Path unrelated = write(stylesheets.resolve("unrelated.xsl"), "<unrelated/>");
+
+        final String key = key(main);
+        assertThat(CompiledArtifactCache.collectDependencies(Files.readAllBytes(main), main.toUri().toString(), null)).hasSize(3);
+        write(unrelated, "<changed/>");
+        assertThat(key(main)).isEqualTo(key);
+        write(included, new String(Files.readAllBytes(included), StandardCharsets.UTF_8) + "<!-- changed -->");
+        final String includedChanged = key(main);
+        assertThat(includedChanged).isNotEqualTo(key);
+        write(imported, "<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform' version='3.0'/>");
+        final String importedChanged = key(main);
+        assertThat(importedChanged).isNotEqualTo(includedChanged);
+        write(lookup, "<lookup changed='true'/>");
+        assertThat(key(main)).isNotEqualTo(importedChanged);
+    }
+
+    @Test
+    public void testSchemaDependencies() throws Exception {
+        final Path schemas = this.folder.newFolder("xsd").toPath();
+        final Path main = write(schemas.resolve("main.xsd"), "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+                + "<xs:include schemaLocation='common.xsd'/><xs:import namespace='urn:other' schemaLocation='other.xsd'/></xs:schema>");
+        write(schemas.resolve("common.xsd"),
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'><xs:include schemaLocation='nested.xsd'/></xs:schema>");
+        write(schemas.resolve("other.xsd"), "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='urn:other'/>");
+        final Path nested = write(schemas.resolve("nested.xsd"), "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'/>");
+
+        final String key = key(main);
+        assertThat(CompiledArtifactCache.collectDependencies(Files.readAllBytes(main), main.toUri().toString(), null)).hasSize(3);
+        write(nested, "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'><xs:element name='changed'/></xs:schema>");
+        assertThat(key(main)).isNotEqualTo(key);
+    }
+
+    private String key(final Path stylesheet) throws Exception {
+        final byte[] content = Files.readAllBytes(stylesheet);
+        return CompiledArtifactCache.computeKey(this.processor, content,
+                CompiledArtifactCache.collectDependencies(content, stylesheet.toUri().toString(), null));
+    }
+
+    private static Path write(final Path file, final String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMissing() {
+        assertThat(this.cache.load(this.processor.newXsltCompiler(), "unknown")).isEmpty();
+    }
+
+    @Test
+    public void testCorrupt() throws Exception {
+        Files.write(this.directory.resolve("corrupt.sef"), "garbage".getBytes(StandardCharsets.UTF_8));
+        assertThat(this.cache.load(this.processor.newXsltCompiler(), "corrupt")).isEmpty();
+    }
+
+    @Test
+    public void testRepositoryWithCache() throws Exception {
+        final ContentRepository repository = Simple.createContentRepository();
+        repository.setArtifactCache(this.cache);
+        final XsltExecutable executable = repository.loadXsltScript(Simple.REPORT_XSL);
+        assertThat(executable).isNotNull();
+        if (!"HE".equals(this.processor.getSaxonEdition())) {
+            // export is only supported by PE/EE
+            try ( final Stream<Path> files = Files.list(this.directory) ) {
+                assertThat(files.filter(p -> p.toString().endsWith(".sef")).count()).isEqualTo(1);
+            }
+            assertThat(repository.loadXsltScript(Simple.REPORT_XSL)).isNotNull();
+        } else {
+            // not supported, no key computed, nothing written
+            assertThat(CompiledArtifactCache.isSupported(this.processor)).isFalse();
+            assertThat(repository.getArtifactCache()).isNull();
+            try ( final Stream<Path> files = Files.list(this.directory) ) {
+                assertThat(files.count()).isEqualTo(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static de.kosit.validationtool.api.InputFactory.read;
+import static de.kosit.validationtool.impl.Helper.Simple.SCHEMA_INVALID;
+import static de.kosit.validationtool.impl.Helper.Simple.SIMPLE_VALID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import de.kosit.validationtool.api.Check;
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.Result;
+import de.kosit.validationtool.impl.Helper.Simple;
+
+/**
+ * Tests {@link ConcurrentCheck}.
+ */
+public class ConcurrentCheckTest {
+
+    private static final int COUNT = 20;
+
+    private DefaultCheck check;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor());
+        this.check = new DefaultCheck(config);
+        this.executor = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrder() {
+        final List<Input> inputs = createInputs();
+        final List<Result> results = new ConcurrentCheck(this.check, this.executor, 4).checkInput(inputs);
+        assertThat(results).hasSize(COUNT);
+        IntStream.range(0, COUNT).forEach(i -> assertThat(results.get(i).isSchemaValid()).isEqualTo(i % 2 == 0));
+    }
+
+    @Test
+    public void testDocuments() {
+        final List<Document> results = new ConcurrentCheck(this.check, this.executor, 4).check(createInputs());
+        assertThat(results).hasSize(COUNT).doesNotContainNull();
+    }
+
+    @Test
+    public void testBoundedParallelism() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final Check counting = input -> {
+            max.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                return this.check.checkInput(input);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+        final List<Result> results = new ConcurrentCheck(counting, this.executor, 2).checkInput(createInputs());
+        assertThat(results).hasSize(COUNT);
+        assertThat(max.get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void testException() {
+        final Check failing = input -> {
+            throw new IllegalStateException("failed");
+        };
+        assertThatThrownBy(() -> new ConcurrentCheck(failing, this.executor, 2).checkInput(createInputs()))
+                .isInstanceOf(IllegalStateException.class).hasMessage("failed");
+    }
+
+    @Test
+    public void testInvalidParallelism() {
+        assertThatThrownBy(() -> new ConcurrentCheck(this.check, this.executor, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Input> createInputs() {
+        return IntStream.range(0, COUNT).mapToObj(i -> read(i % 2 == 0 ? SIMPLE_VALID : SCHEMA_INVALID)).collect(Collectors.toList());
+    }
+}
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.xml.transform.URIResolver;
 import javax.xml.validation.Schema;
 
 import org.junit.Before;
@@ -33,7 +34,9 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.xml.StrictRelativeResolvingStrategy;
 
+import net.sf.saxon.s9api.Processor;
 import net.sf.saxon.s9api.XPathExecutable;
 import net.sf.saxon.s9api.XsltExecutable;
 
@@ -113,4 +116,50 @@ public class ContentRepositoryTest {
         assertThat(schema).isNotNull();
     }
 
+    @Test
+    public void testSharedArtifacts() {
+        final ContentRepository other = Simple.createContentRepository();
+        final XsltExecutable executable = this.repository.loadXsltScript(Simple.REPORT_XSL);
+        assertThat(other.loadXsltScript(Simple.REPORT_XSL)).isSameAs(executable);
+        final Schema schema = this.repository.createSchema(Simple.SCHEMA);
+        assertThat(other.createSchema(Simple.SCHEMA)).isSameAs(schema);
+
+        final ContentRepository otherProcessor = new ContentRepository(new Processor(false), ResolvingMode.STRICT_RELATIVE.getStrategy(),
+                Simple.REPOSITORY_URI);
+        assertThat(otherProcessor.loadXsltScript(Simple.REPORT_XSL)).isNotSameAs(executable);
+        final ContentRepository otherStrategy = new ContentRepository(Helper.getTestProcessor(), ResolvingMode.STRICT_LOCAL.getStrategy(),
+                Simple.REPOSITORY_URI);
+        assertThat(otherStrategy.loadXsltScript(Simple.REPORT_XSL)).isNotSameAs(executable);
+    }
+
+    @Test
+    public void testSharedArtifactsPerResolver() {
+        final XsltExecutable executable = this.repository.loadXsltScript(Simple.REPORT_XSL);
+        // same class, but a different instance and configuration
+        final ContentRepository configured = new ContentRepository(Helper.getTestProcessor(), new ConfiguredStrategy("a"),
+                Simple.REPOSITORY_URI);
+        final XsltExecutable configuredExecutable = configured.loadXsltScript(Simple.REPORT_XSL);
+        assertThat(configuredExecutable).isNotSameAs(executable);
+        final ContentRepository otherConfigured = new ContentRepository(Helper.getTestProcessor(), new ConfiguredStrategy("b"),
+                Simple.REPOSITORY_URI);
+        assertThat(otherConfigured.loadXsltScript(Simple.REPORT_XSL)).isNotSameAs(configuredExecutable);
+    }
+
+    /**
+     * Creates resolvers of the same class, which behave differently depending on the configuration.
+     */
+    private static class ConfiguredStrategy extends StrictRelativeResolvingStrategy {
+
+        private final String prefix;
+
+        ConfiguredStrategy(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public URIResolver createResolver(final URI repositoryURI) {
+            final URIResolver resolver = super.createResolver(repositoryURI);
+            return (href, base) -> resolver.resolve(href.startsWith(this.prefix + ":") ? href.substring(2) : href, base);
+        }
+    }
 }
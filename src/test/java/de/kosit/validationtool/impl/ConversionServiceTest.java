@@ -17,11 +17,14 @@
 package de.kosit.validationtool.impl;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
 
 import java.io.Serializable;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import javax.xml.validation.Schema;
+
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -110,4 +113,47 @@ public class ConversionServiceTest {
         this.service.readXml(Simple.SCENARIOS, null);
     }
 
+    @Test
+    public void testValidate() {
+        final Scenarios s = this.service.readXml(Simple.SCENARIOS, Scenarios.class);
+        final CollectingErrorEventHandler handler = new CollectingErrorEventHandler();
+        this.service.validateXml(s, this.repository.createSchema(SCHEMA), handler);
+        assertThat(handler.hasErrors()).isFalse();
+    }
+
+    @Test
+    public void testValidateInvalid() {
+        final CollectingErrorEventHandler handler = new CollectingErrorEventHandler();
+        this.service.validateXml(new Scenarios(), this.repository.createSchema(SCHEMA), handler);
+        assertThat(handler.hasErrors()).isTrue();
+    }
+
+    @Test
+    public void testPooledInstancesAreReset() {
+        // the scenario definition is not valid against a foreign schema
+        final Schema foreign = this.repository.createSchema(Simple.SCHEMA);
+        try {
+            this.service.readXml(Simple.SCENARIOS, Scenarios.class, foreign);
+            fail("Schema violation expected");
+        } catch (final ConversionService.ConversionExeption e) {
+            // expected
+        }
+        // reused unmarshaller must not validate anymore
+        assertThat(this.service.readXml(Simple.SCENARIOS, Scenarios.class)).isNotNull();
+
+        final CollectingErrorEventHandler handler = new CollectingErrorEventHandler();
+        this.service.validateXml(new Scenarios(), foreign, handler);
+        assertThat(handler.hasErrors()).isTrue();
+        // reused marshaller must not validate anymore
+        assertThat(this.service.writeXml(new Scenarios())).isNotEmpty();
+    }
+
+    @Test
+    public void testSharedContext() {
+        final Package reportInput = de.kosit.validationtool.model.reportInput.ObjectFactory.class.getPackage();
+        final Package scenarios = de.kosit.validationtool.model.scenarios.ObjectFactory.class.getPackage();
+        assertThat(new ConversionService().getJaxbContext()).isSameAs(this.service.getJaxbContext());
+        assertThat(new ConversionService(scenarios, reportInput).getJaxbContext()).isSameAs(this.service.getJaxbContext());
+        assertThat(new ConversionService(scenarios).getJaxbContext()).isNotSameAs(this.service.getJaxbContext());
+    }
 }
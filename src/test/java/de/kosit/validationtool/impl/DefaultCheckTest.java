@@ -26,9 +26,16 @@ import static de.kosit.validationtool.impl.Helper.Simple.SIMPLE_VALID;
 import static de.kosit.validationtool.impl.Helper.Simple.UNKNOWN;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -44,6 +51,8 @@ import de.kosit.validationtool.api.Input;
 import de.kosit.validationtool.api.InputFactory;
 import de.kosit.validationtool.api.Result;
 import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.tasks.CheckAction;
+import de.kosit.validationtool.impl.tasks.ValidateReportInputAction;
 
 import net.sf.saxon.s9api.XdmNode;
 
@@ -254,4 +263,115 @@ public class DefaultCheckTest {
         result = this.validCheck.checkInput(domInput);
         assertThat(result.isProcessingSuccessful()).isEqualTo(true);
     }
+
+    @Test
+    public void testAsync() {
+        final CompletableFuture<Result> future = this.validCheck.checkInputAsync(read(SIMPLE_VALID)).toCompletableFuture();
+        final Result result = future.join();
+        assertThat(result.isProcessingSuccessful()).isTrue();
+        assertThat(result.isAcceptable()).isTrue();
+    }
+
+    @Test
+    public void testAsyncCancelled() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final CompletableFuture<Result> future = this.validCheck.checkInputAsync(read(SIMPLE_VALID), tasks::add).toCompletableFuture();
+        future.cancel(true);
+        assertThat(tasks).hasSize(1);
+        tasks.get(0).run();
+        assertThat(future.isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testCancelledBetweenSteps() {
+        final CheckAction.Bag bag = new CheckAction.Bag(read(SIMPLE_VALID), DefaultCheck.createReport());
+        bag.setCancellation(() -> bag.getScenarioSelectionResult() != null);
+        assertThatThrownBy(() -> this.validCheck.runCheckInternal(bag)).isInstanceOf(CancellationException.class);
+        assertThat(bag.getParserResult()).isNotNull();
+        assertThat(bag.getSchemaValidationResult()).isNull();
+    }
+
+    @Test
+    public void testSpeculativeValidation() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            this.validCheck.enableSpeculativeValidation(executor);
+            final Result valid = this.validCheck.checkInput(read(SIMPLE_VALID));
+            assertThat(valid.isAcceptable()).isTrue();
+            assertThat(valid.getSchematronResult()).hasSize(1);
+            final Result schematronInvalid = this.validCheck.checkInput(read(SCHEMATRON_INVALID));
+            assertThat(schematronInvalid.isSchematronValid()).isFalse();
+            final Result schemaInvalid = this.validCheck.checkInput(read(Simple.SCHEMA_INVALID));
+            assertThat(schemaInvalid.isSchemaValid()).isFalse();
+            assertThat(schemaInvalid.getSchematronResult()).isEmpty();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSinglePassParsing() {
+        this.validCheck.enableSinglePassParsing();
+        final Result valid = this.validCheck.checkInput(read(SIMPLE_VALID));
+        assertThat(valid.isAcceptable()).isTrue();
+        assertThat(valid.isSchemaValid()).isTrue();
+        final Result schemaInvalid = this.validCheck.checkInput(read(Simple.SCHEMA_INVALID));
+        assertThat(schemaInvalid.isSchemaValid()).isFalse();
+        assertThat(schemaInvalid.getSchemaViolations()).isNotEmpty();
+        final Result notWellformed = this.validCheck.checkInput(read(NOT_WELLFORMED));
+        assertThat(notWellformed.isWellformed()).isFalse();
+        assertThat(notWellformed.getAcceptRecommendation()).isEqualTo(AcceptRecommendation.REJECT);
+    }
+
+    @Test
+    public void testPreSelection() {
+        this.validCheck.enablePreSelection();
+        final Result valid = this.validCheck.checkInput(read(SIMPLE_VALID));
+        assertThat(valid.isAcceptable()).isTrue();
+        final Result unknown = this.validCheck.checkInput(read(UNKNOWN));
+        assertThat(unknown.isProcessingSuccessful()).isTrue();
+        assertThat(unknown.isSchemaValid()).isFalse();
+        assertThat(unknown.getAcceptRecommendation()).isEqualTo(AcceptRecommendation.REJECT);
+        assertThat(unknown.getReport()).isNotNull();
+        // the report does not show the prolog stub as the submitted document
+        final String report = unknown.getReport().toString();
+        assertThat(report).contains("document-not-parsed").contains("was not parsed").doesNotContain("<existiertNicht");
+        final Result garbage = this.validCheck.checkInput(read(GARBAGE));
+        assertThat(garbage.isWellformed()).isFalse();
+    }
+
+    @Test
+    public void testDisableReportInputValidation() {
+        this.validCheck.disableReportInputValidation();
+        assertThat(this.validCheck.getCheckSteps()).noneMatch(ValidateReportInputAction.class::isInstance);
+        final Result result = this.validCheck.checkInput(read(SIMPLE_VALID));
+        assertThat(result.isAcceptable()).isTrue();
+        assertThat(result.getReport()).isNotNull();
+    }
+
+    @Test
+    public void testFailingInitialization() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).setLazyInitialization(true)
+                .build(Helper.getTestProcessor());
+        config.getScenarios().forEach(s -> s.setInitializer(scenario -> {
+            throw new CompletionException(new IllegalStateException("compilation failed"));
+        }));
+        final Result result = new DefaultCheck(config).checkInput(read(SIMPLE_VALID));
+        assertThat(result.isProcessingSuccessful()).isFalse();
+        assertThat(result.getProcessingErrors()).anyMatch(e -> e.contains("compilation failed"));
+    }
+
+    @Test
+    public void testFailingInitializationSinglePass() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).setLazyInitialization(true)
+                .build(Helper.getTestProcessor());
+        config.getScenarios().forEach(s -> s.setInitializer(scenario -> {
+            throw new CompletionException(new IllegalStateException("compilation failed"));
+        }));
+        final DefaultCheck check = new DefaultCheck(config);
+        check.enableSinglePassParsing();
+        final Result result = check.checkInput(read(SIMPLE_VALID));
+        assertThat(result.isProcessingSuccessful()).isFalse();
+        assertThat(result.getProcessingErrors()).anyMatch(e -> e.contains("compilation failed"));
+    }
 }
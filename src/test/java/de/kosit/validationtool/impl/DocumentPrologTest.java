@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.namespace.QName;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Tests {@link DocumentProlog}.
+ */
+public class DocumentPrologTest {
+
+    private static final String INV = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2";
+
+    private static final String CBC = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+
+    private static final String INVOICE = "<?xml version=\"1.0\"?>\n<!-- comment -->\n<ubl:Invoice xmlns:ubl=\"" + INV + "\" xmlns:cbc=\""
+            + CBC + "\" version=\"2.1\">" + "<ext:UBLExtensions xmlns:ext=\"urn:ext\"><cbc:CustomizationID>nested</cbc:CustomizationID>"
+            + "</ext:UBLExtensions>" + "<cbc:CustomizationID>urn:cen.eu:en16931:2017</cbc:CustomizationID>"
+            + "<cbc:ProfileID>urn:fdc:peppol.eu:2017:poacc:billing:01:1.0</cbc:ProfileID>" + "<cbc:ID>123</cbc:ID>%s</ubl:Invoice>";
+
+    @Test
+    public void testRead() {
+        final DocumentProlog prolog = read(String.format(INVOICE, ""));
+        assertThat(prolog.getRootElement()).isEqualTo(new QName(INV, "Invoice"));
+        assertThat(prolog.getNamespaces()).containsEntry("ubl", INV).containsEntry("cbc", CBC);
+        assertThat(prolog.getAttributes()).containsEntry(new QName("version"), "2.1");
+        assertThat(prolog.getElements()).containsExactly(entry(new QName(CBC, "CustomizationID"), "urn:cen.eu:en16931:2017"),
+                entry(new QName(CBC, "ProfileID"), "urn:fdc:peppol.eu:2017:poacc:billing:01:1.0"));
+        assertThat(prolog.hasElement(new QName(CBC, "CustomizationID"))).isTrue();
+        assertThat(prolog.isDecidable(new QName(CBC, "CustomizationID"))).isTrue();
+        assertThat(prolog.hasElement(new QName(INV, "CustomizationID"))).isFalse();
+    }
+
+    @Test
+    public void testQualifiedAndRepeated() {
+        final DocumentProlog prolog = read("<ubl:Invoice xmlns:ubl=\"" + INV + "\" xmlns:cbc=\"" + CBC + "\" xmlns:foo=\"urn:foo\">"
+                + "<cbc:CustomizationID>first</cbc:CustomizationID><foo:CustomizationID>other</foo:CustomizationID>"
+                + "<cbc:ProfileID>a</cbc:ProfileID><cbc:ID>123</cbc:ID><cbc:ProfileID>b</cbc:ProfileID></ubl:Invoice>");
+        // distinguished by namespace
+        assertThat(prolog.getElements()).containsExactly(entry(new QName(CBC, "CustomizationID"), "first"),
+                entry(new QName("urn:foo", "CustomizationID"), "other"), entry(new QName(CBC, "ProfileID"), "a"));
+        assertThat(prolog.isDecidable(new QName(CBC, "CustomizationID"))).isTrue();
+        assertThat(prolog.isDecidable(new QName("urn:foo", "CustomizationID"))).isTrue();
+        // repeated, even after other elements
+        assertThat(prolog.getRepeated()).containsExactly(new QName(CBC, "ProfileID"));
+        assertThat(prolog.hasElement(new QName(CBC, "ProfileID"))).isTrue();
+        assertThat(prolog.isDecidable(new QName(CBC, "ProfileID"))).isFalse();
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final String document = String.format(INVOICE, StringUtils.repeat("<cbc:Note>note</cbc:Note>", 2000));
+        final PushbackInputStream stream = new PushbackInputStream(
+                new ByteArrayInputStream(document.substring(0, 600).getBytes(StandardCharsets.UTF_8)), DocumentProlog.PREFIX_SIZE);
+        final DocumentProlog prolog = DocumentProlog.read(stream);
+        assertThat(prolog.getRootElement()).isEqualTo(new QName(INV, "Invoice"));
+        assertThat(prolog.hasElement(new QName(CBC, "CustomizationID"))).isTrue();
+        // the prefix is pushed back
+        assertThat(IOUtils.toString(stream, StandardCharsets.UTF_8)).isEqualTo(document.substring(0, 600));
+
+        final DocumentProlog truncated = read(document.substring(0, 300));
+        assertThat(truncated.getRootElement()).isEqualTo(new QName(INV, "Invoice"));
+        assertThat(truncated.getElements()).isEmpty();
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        final byte[] document = String.format(INVOICE, StringUtils.repeat("<cbc:Note>note</cbc:Note>", 2000))
+                .getBytes(StandardCharsets.UTF_8);
+        final PushbackInputStream stream = new PushbackInputStream(new ByteArrayInputStream(document), DocumentProlog.PREFIX_SIZE);
+        assertThat(DocumentProlog.read(stream).hasElement(new QName(CBC, "ProfileID"))).isTrue();
+        assertThat(IOUtils.toByteArray(stream)).isEqualTo(document);
+    }
+
+    @Test
+    public void testUnknown() {
+        assertThat(read("no xml at all").getRootElement()).isNull();
+        assertThat(read("").getRootElement()).isNull();
+        assertThat(read("<?xml version=\"1.0\"?><!-- only a comment").getRootElement()).isNull();
+    }
+
+    @Test
+    public void testStub() {
+        final DocumentProlog prolog = read(String.format(INVOICE, ""));
+        final XdmNode stub = prolog.createStub(Helper.getTestProcessor());
+        assertThat(stub).isNotNull();
+        assertThat(stub.toString()).contains("urn:cen.eu:en16931:2017").contains("version=\"2.1\"").doesNotContain("123");
+        assertThat(read("no xml").createStub(Helper.getTestProcessor())).isNull();
+    }
+
+    private static DocumentProlog read(final String content) {
+        return DocumentProlog.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
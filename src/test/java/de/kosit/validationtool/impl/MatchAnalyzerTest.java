@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import de.kosit.validationtool.model.scenarios.NamespaceType;
+import de.kosit.validationtool.model.scenarios.ScenarioType;
+
+/**
+ * Tests {@link MatchAnalyzer}.
+ */
+public class MatchAnalyzerTest {
+
+    private static final String NS = "urn:oasis:names:specification:ubl:schema:xsd:Invoice-2";
+
+    private static final String CBC = "urn:oasis:names:specification:ubl:schema:xsd:CommonBasicComponents-2";
+
+    @Test
+    public void testSimpleRoot() {
+        assertThat(analyze("/inv:Invoice")).contains(new QName(NS, "Invoice"));
+        assertThat(analyze(" /inv:Invoice ")).contains(new QName(NS, "Invoice"));
+        assertThat(analyze("/Invoice")).contains(new QName("", "Invoice"));
+    }
+
+    @Test
+    public void testDefaultNamespace() {
+        final ScenarioType type = new ScenarioType();
+        final NamespaceType ns = new NamespaceType();
+        ns.setPrefix("");
+        ns.setValue(NS);
+        type.getNamespace().add(ns);
+        type.setMatch("/Invoice[ProfileID]");
+        assertThat(MatchAnalyzer.getRootElement(type)).contains(new QName(NS, "Invoice"));
+        type.setMatch("true()");
+        type.setRootElement("Invoice");
+        assertThat(MatchAnalyzer.getRootElement(type)).contains(new QName(NS, "Invoice"));
+    }
+
+    @Test
+    public void testPredicates() {
+        assertThat(
+                analyze("/inv:Invoice[cbc:CustomizationID = 'urn:cen.eu:en16931:2017#compliant#urn:xoev-de:kosit:standard:xrechnung_2.3']"))
+                        .contains(new QName(NS, "Invoice"));
+        assertThat(analyze("/inv:Invoice[starts-with(a, ']')][b[c]]")).contains(new QName(NS, "Invoice"));
+    }
+
+    @Test
+    public void testUnknown() {
+        assertThat(analyze("//inv:Invoice")).isEmpty();
+        assertThat(analyze("/inv:Invoice/cbc:ID")).isEmpty();
+        assertThat(analyze("/inv:Invoice | /inv:CreditNote")).isEmpty();
+        assertThat(analyze("/inv:Invoice[a] or true()")).isEmpty();
+        assertThat(analyze("/*")).isEmpty();
+        assertThat(analyze("/*:Invoice")).isEmpty();
+        assertThat(analyze("/unknown:Invoice")).isEmpty();
+        assertThat(analyze("true()")).isEmpty();
+        assertThat(analyze(null)).isEmpty();
+    }
+
+    @Test
+    public void testRootElementHint() {
+        assertThat(analyze("//inv:Invoice", "inv:Invoice")).contains(new QName(NS, "Invoice"));
+        assertThat(analyze("/inv:Invoice", "inv:CreditNote")).contains(new QName(NS, "CreditNote"));
+        assertThat(analyze("true()", "Invoice")).contains(new QName("", "Invoice"));
+        assertThat(analyze("/inv:Invoice", "unknown:Invoice")).isEmpty();
+        assertThat(analyze("/inv:Invoice", "inv:Invoice | inv:CreditNote")).isEmpty();
+        assertThat(analyze("/inv:Invoice", " ")).contains(new QName(NS, "Invoice"));
+    }
+
+    @Test
+    public void testPredicateElements() {
+        assertThat(predicates("/inv:Invoice")).contains(Collections.emptySet());
+        assertThat(predicates("/inv:Invoice[starts-with(cbc:CustomizationID, 'urn:cen.eu:en16931:2017#compliant')]"))
+                .contains(Collections.singleton(new QName(CBC, "CustomizationID")));
+        assertThat(predicates("/inv:Invoice[cbc:CustomizationID = 'a/b*c.d' and cbc:ProfileID = \"x\"][@version eq '2.1']"))
+                .contains(new HashSet<>(Arrays.asList(new QName(CBC, "CustomizationID"), new QName(CBC, "ProfileID"))));
+        assertThat(predicates("/inv:Invoice[not(cbc:ProfileID) or true()]")).contains(Collections.singleton(new QName(CBC, "ProfileID")));
+        assertThat(predicates("/inv:Invoice[ProfileID]")).contains(Collections.singleton(new QName("", "ProfileID")));
+    }
+
+    @Test
+    public void testUnknownPredicateElements() {
+        assertThat(predicates("//inv:Invoice[cbc:CustomizationID]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[cac:Party/cbc:ID]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[.//cbc:ID]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[contains(., 'x')]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[string() = 'x']")).isEmpty();
+        assertThat(predicates("/inv:Invoice[count(*) = 1]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[child::cbc:ID]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[cbc:ID = $id]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[my:function(cbc:ID)]")).isEmpty();
+        assertThat(predicates("/inv:Invoice[unknown:CustomizationID]")).isEmpty();
+    }
+
+    private static Optional<Set<QName>> predicates(final String match) {
+        final ScenarioType type = new ScenarioType();
+        final NamespaceType inv = new NamespaceType();
+        inv.setPrefix("inv");
+        inv.setValue(NS);
+        type.getNamespace().add(inv);
+        final NamespaceType cbc = new NamespaceType();
+        cbc.setPrefix("cbc");
+        cbc.setValue(CBC);
+        type.getNamespace().add(cbc);
+        type.setMatch(match);
+        return MatchAnalyzer.getPredicateElements(type);
+    }
+
+    private static Optional<QName> analyze(final String match) {
+        return analyze(match, null);
+    }
+
+    private static Optional<QName> analyze(final String match, final String rootElement) {
+        final ScenarioType type = new ScenarioType();
+        type.setRootElement(rootElement);
+        final NamespaceType ns = new NamespaceType();
+        ns.setPrefix("inv");
+        ns.setValue(NS);
+        type.getNamespace().add(ns);
+        type.setMatch(match);
+        return MatchAnalyzer.getRootElement(type);
+    }
+}
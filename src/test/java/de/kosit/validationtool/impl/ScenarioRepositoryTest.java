@@ -17,12 +17,17 @@
 package de.kosit.validationtool.impl;
 
 import static de.kosit.validationtool.api.InputFactory.read;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -32,6 +37,7 @@ import org.junit.rules.ExpectedException;
 import de.kosit.validationtool.config.TestConfiguration;
 import de.kosit.validationtool.impl.Helper.Simple;
 import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.model.scenarios.NamespaceType;
 import de.kosit.validationtool.model.scenarios.ScenarioType;
 
 import net.sf.saxon.s9api.XPathExecutable;
@@ -45,6 +51,10 @@ import net.sf.saxon.s9api.XdmNode;
 
 public class ScenarioRepositoryTest {
 
+    private static final String SCENARIOS_NS = "http://www.xoev.de/de/validator/framework/1/scenarios";
+
+    private static final String OTHER_NS = "urn:other";
+
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
 
@@ -107,6 +117,99 @@ public class ScenarioRepositoryTest {
         assertThat(scenario.getObject().getName()).isEqualTo("fallback");
     }
 
+    @Test
+    public void testIndexedSelection() throws Exception {
+        // would match any document, but requires a different root element
+        this.configInstance.getScenarios().add(createScenario("/other:root", null, "true()"));
+        this.configInstance.setFallbackScenario(createFallback());
+        final Result<Scenario, String> scenario = this.repository.selectScenario(load(Simple.SCENARIOS));
+        assertThat(scenario.isValid()).isTrue();
+        assertThat(scenario.getObject()).isSameAs(this.configInstance.getScenarios().get(0));
+        assertThat(this.repository.getCandidates(new QName(SCENARIOS_NS, "scenarios"))).hasSize(1);
+        assertThat(this.repository.getCandidates(new QName(OTHER_NS, "root"))).hasSize(2);
+        assertThat(this.repository.getCandidates(null)).hasSize(2);
+    }
+
+    @Test
+    public void testDefaultNamespace() throws Exception {
+        this.configInstance.setScenarios(new ArrayList<>());
+        final Scenario scenario = createScenario("/scenarios", null, "/scenarios");
+        scenario.getConfiguration().getNamespace().add(createNamespace("", SCENARIOS_NS));
+        final Map<String, String> namespaces = new HashMap<>();
+        scenario.getConfiguration().getNamespace().forEach(n -> namespaces.put(n.getPrefix(), n.getValue()));
+        scenario.setMatchExecutable(this.configInstance.getContentRepository().createXPath("/scenarios", namespaces));
+        this.configInstance.getScenarios().add(scenario);
+        this.configInstance.setFallbackScenario(createFallback());
+        final Result<Scenario, String> result = this.repository.selectScenario(load(Simple.SCENARIOS));
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getObject()).isSameAs(scenario);
+        assertThat(this.repository.getCandidates(new QName(SCENARIOS_NS, "scenarios"))).containsExactly(scenario);
+        assertThat(this.repository.getCandidates(new QName("", "scenarios"))).isEmpty();
+    }
+
+    @Test
+    public void testRootElementHint() throws Exception {
+        this.configInstance.getScenarios().clear();
+        this.configInstance.getScenarios().add(createScenario("true()", "other:root", "true()"));
+        this.configInstance.getScenarios().add(createScenario("true()", "s:scenarios", "true()"));
+        this.configInstance.setFallbackScenario(createFallback());
+        final Result<Scenario, String> scenario = this.repository.selectScenario(load(Simple.SCENARIOS));
+        assertThat(scenario.isValid()).isTrue();
+        assertThat(scenario.getObject()).isSameAs(this.configInstance.getScenarios().get(1));
+        assertThat(this.repository.getCandidates(new QName(SCENARIOS_NS, "unknown"))).isEmpty();
+    }
+
+    @Test
+    public void testPreselection() {
+        this.configInstance.getScenarios().clear();
+        final Scenario first = createScenario("/s:scenarios[@frameworkVersion = '1.1.2']", null,
+                "/s:scenarios[@frameworkVersion = '1.1.2']");
+        final Scenario second = createScenario("/s:scenarios[s:name = 'x']", null, "/s:scenarios[s:name = 'x']");
+        final Scenario third = createScenario("/s:scenarios[@frameworkVersion = '0.0.0']", null,
+                "/s:scenarios[@frameworkVersion = '0.0.0']");
+        this.configInstance.getScenarios().add(first);
+        this.configInstance.getScenarios().add(second);
+        this.configInstance.getScenarios().add(third);
+        this.configInstance.getScenarios().add(createScenario("/other:root", null, "true()"));
+        final DocumentProlog prolog = DocumentProlog.read(new ByteArrayInputStream(
+                ("<scenarios xmlns='" + SCENARIOS_NS + "' frameworkVersion='1.1.2'><name>x</name></scenarios>").getBytes(UTF_8)));
+        // the second one refers to elements not part of the prolog
+        assertThat(this.repository.preselectScenarios(prolog)).containsExactly(first, second);
+        assertThat(this.repository.preselectScenarios(DocumentProlog.read(new ByteArrayInputStream("<unknown/>".getBytes(UTF_8)))))
+                .isEmpty();
+        assertThat(this.repository.preselectScenarios(DocumentProlog.read(new ByteArrayInputStream(new byte[0])))).hasSize(4);
+    }
+
+    @Test
+    public void testPreselectionByQualifiedName() {
+        this.configInstance.setScenarios(new ArrayList<>());
+        final Scenario other = createScenario("/s:scenarios[other:CustomizationID = 'x']", null,
+                "/s:scenarios[other:CustomizationID = 'x']");
+        final Scenario own = createScenario("/s:scenarios[s:CustomizationID = 'x']", null, "/s:scenarios[s:CustomizationID = 'x']");
+        this.configInstance.getScenarios().add(other);
+        this.configInstance.getScenarios().add(own);
+        // the first CustomizationID is not the one the first scenario refers to
+        final DocumentProlog prolog = DocumentProlog
+                .read(new ByteArrayInputStream(("<scenarios xmlns='" + SCENARIOS_NS + "' xmlns:o='" + OTHER_NS
+                        + "'><CustomizationID>y</CustomizationID><o:CustomizationID>x</o:CustomizationID></scenarios>").getBytes(UTF_8)));
+        assertThat(this.repository.preselectScenarios(prolog)).containsExactly(other);
+    }
+
+    @Test
+    public void testPreselectionWithRepeatedElement() {
+        this.configInstance.setScenarios(new ArrayList<>());
+        final Scenario customization = createScenario("/s:scenarios[s:CustomizationID = 'b']", null,
+                "/s:scenarios[s:CustomizationID = 'b']");
+        final Scenario profile = createScenario("/s:scenarios[s:ProfileID = 'b']", null, "/s:scenarios[s:ProfileID = 'b']");
+        this.configInstance.getScenarios().add(customization);
+        this.configInstance.getScenarios().add(profile);
+        final DocumentProlog prolog = DocumentProlog.read(new ByteArrayInputStream(("<scenarios xmlns='" + SCENARIOS_NS
+                + "'><CustomizationID>a</CustomizationID><ProfileID>a</ProfileID><CustomizationID>b</CustomizationID></scenarios>")
+                        .getBytes(UTF_8)));
+        // the repeated element can not be decided on the prolog, the candidate is kept
+        assertThat(this.repository.preselectScenarios(prolog)).containsExactly(customization);
+    }
+
     @Test
     public void testNoConfiguration() {
         this.expectedException.expect(IllegalArgumentException.class);
@@ -130,6 +233,26 @@ public class ScenarioRepositoryTest {
         return Helper.parseDocument(this.configInstance.getContentRepository().getProcessor(), read(uri.toURL())).getObject();
     }
 
+    private Scenario createScenario(final String match, final String rootElement, final String matchExecutable) {
+        final ScenarioType type = new ScenarioType();
+        type.setMatch(match);
+        type.setRootElement(rootElement);
+        type.getNamespace().add(createNamespace("other", OTHER_NS));
+        type.getNamespace().add(createNamespace("s", SCENARIOS_NS));
+        final Scenario s = new Scenario(type);
+        final Map<String, String> namespaces = new HashMap<>();
+        type.getNamespace().forEach(n -> namespaces.put(n.getPrefix(), n.getValue()));
+        s.setMatchExecutable(this.configInstance.getContentRepository().createXPath(matchExecutable, namespaces));
+        return s;
+    }
+
+    private static NamespaceType createNamespace(final String prefix, final String uri) {
+        final NamespaceType ns = new NamespaceType();
+        ns.setPrefix(prefix);
+        ns.setValue(uri);
+        return ns;
+    }
+
     private XPathExecutable createXpath(final String expression) {
         return this.configInstance.getContentRepository().createXPath(expression, new HashMap<>());
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.kosit.validationtool.model.scenarios.ScenarioType;
+
+/**
+ * Tests lazy initialization of {@link Scenario}.
+ */
+public class ScenarioTest {
+
+    @Test
+    public void testSingleFlightInitialization() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Scenario scenario = new Scenario(new ScenarioType());
+        scenario.setInitializer(s -> {
+            count.incrementAndGet();
+            s.setReportTransformation(new Scenario.Transformation(null, null));
+        });
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Scenario.Transformation>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return scenario.getReportTransformation();
+                }));
+            }
+            start.countDown();
+            for (final Future<Scenario.Transformation> result : results) {
+                assertThat(result.get()).isNotNull();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(count.get()).isEqualTo(1);
+        assertThat(scenario.isInitialized()).isTrue();
+    }
+
+    @Test
+    public void testFailedInitializationIsRetried() {
+        final AtomicInteger count = new AtomicInteger();
+        final Scenario scenario = new Scenario(new ScenarioType());
+        scenario.setInitializer(s -> {
+            if (count.incrementAndGet() == 1) {
+                throw new IllegalStateException("failed");
+            }
+        });
+        assertThatThrownBy(scenario::initialize).isInstanceOf(IllegalStateException.class);
+        assertThat(scenario.isInitialized()).isFalse();
+        scenario.initialize();
+        assertThat(scenario.isInitialized()).isTrue();
+        assertThat(count.get()).isEqualTo(2);
+    }
+}
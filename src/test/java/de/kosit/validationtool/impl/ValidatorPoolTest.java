@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.StringReader;
+
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+import org.junit.Test;
+import org.xml.sax.SAXParseException;
+
+import de.kosit.validationtool.api.ResolvingConfigurationStrategy;
+import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.xml.StrictLocalResolvingStrategy;
+
+/**
+ * Tests {@link ValidatorPool}.
+ */
+public class ValidatorPoolTest {
+
+    private static final String EXTERNAL_DTD = "<!DOCTYPE simple SYSTEM \"simple.dtd\"><simple/>";
+
+    @Test
+    public void testHitsAndMisses() {
+        final ValidatorPool pool = new ValidatorPool(() -> mock(Validator.class), 1);
+        final Validator first = pool.borrow();
+        final Validator second = pool.borrow();
+        assertThat(pool.getMisses()).isEqualTo(2);
+        assertThat(pool.getHits()).isEqualTo(0);
+
+        pool.release(first);
+        pool.release(second);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        verify(second).setErrorHandler(null);
+
+        assertThat(pool.borrow()).isSameAs(first);
+        assertThat(pool.getHits()).isEqualTo(1);
+        assertThat(pool.getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidSize() {
+        assertThatThrownBy(() -> new ValidatorPool(() -> mock(Validator.class), 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSecurityRetainedOnReuse() throws Exception {
+        final ResolvingConfigurationStrategy strategy = new StrictLocalResolvingStrategy();
+        final Schema schema = strategy.createSchemaFactory().newSchema(Simple.SCHEMA.toURL());
+        final ValidatorPool pool = new ValidatorPool(() -> strategy.createValidator(schema));
+
+        final Validator validator = pool.borrow();
+        validator.validate(new StreamSource(Simple.SIMPLE_VALID.toASCIIString()));
+        pool.release(validator);
+
+        final Validator reused = pool.borrow();
+        assertThat(reused).isSameAs(validator);
+        assertThat(reused.getErrorHandler()).isNull();
+        reused.validate(new StreamSource(Simple.SIMPLE_VALID.toASCIIString()));
+        assertThatThrownBy(() -> reused.validate(new StreamSource(new StringReader(EXTERNAL_DTD), Simple.EXAMPLES.toASCIIString())))
+                .isInstanceOf(SAXParseException.class).hasMessageContaining("accessExternalDTD");
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+
+/**
+ * Tests {@link MappedFileInput}.
+ */
+public class MappedFileInputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMultipleReads() throws IOException {
+        final Path path = Paths.get(Simple.SIMPLE_VALID);
+        final byte[] expected = Files.readAllBytes(path);
+        final Input input = InputFactory.read(path);
+        assertThat(input).isInstanceOf(MappedFileInput.class);
+        assertThat(read(input)).isEqualTo(expected);
+        assertThat(read(input)).isEqualTo(expected);
+        assertThat(((MappedFileInput) input).getLength()).isEqualTo(expected.length);
+        assertThat(Helper.parseDocument(input).isValid()).isTrue();
+    }
+
+    @Test
+    public void testIndependentSources() throws IOException {
+        final Path path = Paths.get(Simple.SIMPLE_VALID);
+        final byte[] expected = Files.readAllBytes(path);
+        final Input input = InputFactory.read(path);
+        try ( final InputStream first = ((StreamSource) input.getSource()).getInputStream();
+              final InputStream second = ((StreamSource) input.getSource()).getInputStream() ) {
+            assertThat(first.read()).isEqualTo(expected[0]);
+            assertThat(IOUtils.toByteArray(second)).isEqualTo(expected);
+            assertThat(first.read()).isEqualTo(expected[1]);
+        }
+    }
+
+    @Test
+    public void testHashCode() throws Exception {
+        final Path path = Paths.get(Simple.SIMPLE_VALID);
+        final Input input = InputFactory.read(path.toFile());
+        final byte[] expected = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(path));
+        // without reading the source before
+        assertThat(input.getHashCode()).isEqualTo(expected);
+        assertThat(StreamHelper.drain(InputFactory.read(path.toUri().toURL())).getHashCode()).isEqualTo(expected);
+    }
+
+    @Test
+    public void testEmptyFile() throws Exception {
+        final Path path = this.folder.newFile("empty.xml").toPath();
+        final Input input = InputFactory.read(path);
+        assertThat(read(input)).isEmpty();
+        assertThat(input.getHashCode()).isEqualTo(MessageDigest.getInstance("SHA-256").digest());
+        assertThat(((MappedFileInput) input).getLength()).isZero();
+    }
+
+    private static byte[] read(final Input input) throws IOException {
+        try ( final InputStream stream = ((StreamSource) input.getSource()).getInputStream() ) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+}
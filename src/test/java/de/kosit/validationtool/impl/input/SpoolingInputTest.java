@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+
+/**
+ * Tests {@link SpoolingInput}.
+ */
+public class SpoolingInputTest {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final byte[] content = createContent(200 * 1024);
+
+    @Test
+    public void testHeapOnly() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(1024 * 1024);
+        try ( final SpoolingInput input = spool(this.content, 1024 * 1024, budget) ) {
+            assertMultipleReads(input, this.content);
+            assertThat(input.isSpilled()).isFalse();
+            assertThat(budget.getReserved()).isEqualTo(this.content.length);
+        }
+        assertThat(budget.getReserved()).isZero();
+    }
+
+    @Test
+    public void testSpillHeapLimit() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(1024 * 1024);
+        final Path spillFile;
+        try ( final SpoolingInput input = spool(this.content, 100 * 1024, budget) ) {
+            assertMultipleReads(input, this.content);
+            assertThat(input.isSpilled()).isTrue();
+            spillFile = input.getSpillFile();
+            assertThat(spillFile).exists();
+            assertThat(budget.getReserved()).isLessThanOrEqualTo(100 * 1024);
+        }
+        assertThat(spillFile).doesNotExist();
+        assertThat(budget.getReserved()).isZero();
+    }
+
+    @Test
+    public void testSharedBudget() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(300 * 1024);
+        try ( final SpoolingInput first = spool(this.content, 1024 * 1024, budget);
+              final SpoolingInput second = spool(this.content, 1024 * 1024, budget) ) {
+            assertMultipleReads(first, this.content);
+            assertMultipleReads(second, this.content);
+            assertThat(first.isSpilled()).isFalse();
+            // budget exhausted by the first input
+            assertThat(second.isSpilled()).isTrue();
+            assertThat(budget.getReserved()).isLessThanOrEqualTo(budget.getLimit());
+        }
+        assertThat(budget.getReserved()).isZero();
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        try ( final SpoolingInput input = spool(new byte[0], 1024, new MemoryBudget(1024)) ) {
+            assertMultipleReads(input, new byte[0]);
+        }
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        try ( final InputStream stream = Simple.SIMPLE_VALID.toURL().openStream();
+              final SpoolingInput input = (SpoolingInput) InputFactory.spool(stream, "simple") ) {
+            assertThat(Helper.parseDocument(input).isValid()).isTrue();
+            assertThat(Helper.parseDocument(input).isValid()).isTrue();
+            assertThat(input.getHashCode()).isEqualTo(StreamHelper.drain(InputFactory.read(Simple.SIMPLE_VALID)).getHashCode());
+        }
+    }
+
+    @Test
+    public void testClosed() throws Exception {
+        final SpoolingInput input = spool(this.content, 1024, new MemoryBudget(1024));
+        input.close();
+        assertThatThrownBy(input::getSource).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void assertMultipleReads(final SpoolingInput input, final byte[] content) throws Exception {
+        assertThat(read(input)).isEqualTo(content);
+        assertThat(read(input)).isEqualTo(content);
+        assertThat(input.getHashCode()).isEqualTo(MessageDigest.getInstance(ALGORITHM).digest(content));
+        assertThat(input.getLength()).isEqualTo(content.length);
+    }
+
+    private static SpoolingInput spool(final byte[] content, final long heapLimit, final MemoryBudget budget) {
+        return new SpoolingInput(new ByteArrayInputStream(content), "test", ALGORITHM, heapLimit, budget);
+    }
+
+    private static byte[] read(final Input input) throws IOException {
+        try ( final InputStream stream = ((StreamSource) input.getSource()).getInputStream() ) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    private static byte[] createContent(final int length) {
+        final byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.input;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.kosit.validationtool.api.DigestProvider;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.InputFactory;
+
+/**
+ * Tests {@link XxHash64Digest} and the {@link DigestProvider} lookup.
+ */
+public class XxHash64DigestTest {
+
+    @Test
+    public void testReferenceValues() {
+        assertThat(hash("")).isEqualTo("ef46db3751d8e999");
+        assertThat(hash("a")).isEqualTo("d24ec4f1a98c6e5b");
+        assertThat(hash("abc")).isEqualTo("44bc2cf5ad770999");
+        assertThat(hash("Nobody inspects the spammish repetition")).isEqualTo("fbcea83c8a378bf1");
+    }
+
+    @Test
+    public void testStreaming() {
+        final byte[] content = new byte[10000];
+        new Random(42).nextBytes(content);
+        final MessageDigest whole = new XxHash64Digest();
+        final byte[] expected = whole.digest(content);
+
+        final MessageDigest chunked = new XxHash64Digest();
+        int pos = 0;
+        int chunk = 1;
+        while (pos < content.length) {
+            final int len = Math.min(chunk, content.length - pos);
+            chunked.update(content, pos, len);
+            pos += len;
+            chunk = chunk * 3 % 97 + 1;
+        }
+        chunked.update(new byte[0]);
+        assertThat(chunked.digest()).isEqualTo(expected);
+
+        for (final byte b : content) {
+            chunked.update(b);
+        }
+        assertThat(chunked.digest()).isEqualTo(expected);
+    }
+
+    @Test
+    public void testInput() throws IOException {
+        final byte[] content = "<doc/>".getBytes(StandardCharsets.UTF_8);
+        final Input input = StreamHelper.drain(InputFactory.read(content, "doc", "xxh64"));
+        assertThat(input.getDigestAlgorithm()).isEqualTo("xxh64");
+        assertThat(input.getHashCode()).isEqualTo(new XxHash64Digest().digest(content));
+    }
+
+    @Test
+    public void testRegisterProvider() {
+        InputFactory.register(new DigestProvider() {
+
+            @Override
+            public String getAlgorithm() {
+                return "test-identity";
+            }
+
+            @Override
+            public MessageDigest createDigest() {
+                return new XxHash64Digest();
+            }
+        });
+        assertThat(StreamHelper.createDigest("TEST-IDENTITY")).isInstanceOf(XxHash64Digest.class);
+        assertThat(StreamHelper.createDigest("SHA-256").getAlgorithm()).isEqualTo("SHA-256");
+        assertThatThrownBy(() -> StreamHelper.createDigest("unknown")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> InputFactory.register(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String hash(final String value) {
+        final StringBuilder hex = new StringBuilder();
+        for (final byte b : new XxHash64Digest().digest(value.getBytes(StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.kosit.validationtool.api.Check;
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.Result;
+import de.kosit.validationtool.impl.DefaultCheck;
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.input.ByteArrayInput;
+import de.kosit.validationtool.impl.input.MappedFileInput;
+import de.kosit.validationtool.impl.input.ResourceInput;
+import de.kosit.validationtool.impl.input.SourceInput;
+import de.kosit.validationtool.impl.tasks.CheckAction.Bag;
+import de.kosit.validationtool.model.reportInput.DocumentIdentificationType.DocumentHash;
+
+/**
+ * Tests {@link CreateDocumentIdentificationAction} in conjunction with {@link DocumentParseAction}. The hashcode is
+ * computed while parsing, each document is read exactly once, also within the complete check pipeline.
+ */
+public class CreateDocumentIdentificationActionTest {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final String VALID = "<?xml version=\"1.0\"?><doc>" + StringUtils.repeat("<item>content</item>", 5000) + "</doc>";
+
+    // parsing stops at the first error, the remaining content is part of the hashcode nonetheless
+    private static final String NOT_WELLFORMED = "<doc><item></doc>" + StringUtils.repeat("<item>content</item>", 5000);
+
+    /**
+     * Counts the streams opened and the bytes read.
+     */
+    private static class Counter {
+
+        private final AtomicInteger opened = new AtomicInteger();
+
+        private final AtomicLong bytes = new AtomicLong();
+
+        InputStream open(final byte[] content) {
+            this.opened.incrementAndGet();
+            return new FilterInputStream(new ByteArrayInputStream(content)) {
+
+                @Override
+                public int read() throws IOException {
+                    final int b = super.read();
+                    if (b >= 0) {
+                        Counter.this.bytes.incrementAndGet();
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) throws IOException {
+                    final int count = super.read(b, off, len);
+                    if (count > 0) {
+                        Counter.this.bytes.addAndGet(count);
+                    }
+                    return count;
+                }
+            };
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DocumentParseAction parseAction = new DocumentParseAction(Helper.getTestProcessor());
+
+    private final CreateDocumentIdentificationAction action = new CreateDocumentIdentificationAction();
+
+    @Test
+    public void testByteArrayInput() throws Exception {
+        for (final String document : new String[] { VALID, NOT_WELLFORMED }) {
+            final Counter counter = new Counter();
+            final byte[] content = bytes(document);
+            final Input input = new ByteArrayInput(content, "bytes", ALGORITHM) {
+
+                @Override
+                public Source getSource() {
+                    return new StreamSource(wrap(counter.open(content)), getName());
+                }
+            };
+            assertReadOnce(input, content, counter);
+        }
+    }
+
+    @Test
+    public void testResourceInput() throws Exception {
+        for (final String document : new String[] { VALID, NOT_WELLFORMED }) {
+            final Counter counter = new Counter();
+            final byte[] content = bytes(document);
+            assertReadOnce(new ResourceInput(createUrl(content, counter), "resource", ALGORITHM), content, counter);
+        }
+    }
+
+    @Test
+    public void testStreamSourceInput() throws Exception {
+        for (final String document : new String[] { VALID, NOT_WELLFORMED }) {
+            final Counter counter = new Counter();
+            final byte[] content = bytes(document);
+            assertReadOnce(new SourceInput(new StreamSource(counter.open(content)), "stream", ALGORITHM), content, counter);
+        }
+    }
+
+    @Test
+    public void testReaderSourceInput() throws Exception {
+        for (final String document : new String[] { VALID, NOT_WELLFORMED }) {
+            final Counter counter = new Counter();
+            final byte[] content = bytes(document);
+            final StreamSource source = new StreamSource(new InputStreamReader(counter.open(content), StandardCharsets.US_ASCII));
+            assertReadOnce(new SourceInput(source, "reader", ALGORITHM), content, counter);
+        }
+    }
+
+    @Test
+    public void testMappedFileInput() throws Exception {
+        for (final String document : new String[] { VALID, NOT_WELLFORMED }) {
+            final AtomicInteger opened = new AtomicInteger();
+            final byte[] content = bytes(document);
+            final Path path = this.folder.newFile().toPath();
+            Files.write(path, content);
+            final Input input = new MappedFileInput(path, "mapped", ALGORITHM) {
+
+                @Override
+                public Source getSource() throws IOException {
+                    opened.incrementAndGet();
+                    return super.getSource();
+                }
+            };
+            final Bag bag = check(input);
+            assertThat(opened.get()).isEqualTo(1);
+            assertHash(bag, content);
+        }
+    }
+
+    @Test
+    public void testCheckInput() throws Exception {
+        final Check check = new DefaultCheck(Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor()));
+        for (final URI document : new URI[] { Simple.SIMPLE_VALID, Simple.SCHEMA_INVALID }) {
+            final byte[] content = Files.readAllBytes(Paths.get(document));
+            final Counter multiRead = new Counter();
+            final Input bytes = new ByteArrayInput(content, "bytes", ALGORITHM) {
+
+                @Override
+                public Source getSource() {
+                    return new StreamSource(wrap(multiRead.open(content)), getName());
+                }
+            };
+            assertCheckedOnce(check, bytes, content, multiRead);
+            final Counter resource = new Counter();
+            assertCheckedOnce(check, new ResourceInput(createUrl(content, resource), "resource", ALGORITHM), content, resource);
+            final Counter singleRead = new Counter();
+            assertCheckedOnce(check, new SourceInput(new StreamSource(singleRead.open(content)), "stream", ALGORITHM), content, singleRead);
+        }
+    }
+
+    private static void assertCheckedOnce(final Check check, final Input input, final byte[] content, final Counter counter)
+            throws Exception {
+        final Result result = check.checkInput(input);
+        assertThat(result.isProcessingSuccessful()).isTrue();
+        // the schema validation has been executed
+        assertThat(result.getSchemaViolations().isEmpty()).isEqualTo(result.isSchemaValid());
+        assertThat(counter.opened.get()).isEqualTo(1);
+        assertThat(counter.bytes.get()).isEqualTo(content.length);
+        assertThat(input.getHashCode()).isEqualTo(MessageDigest.getInstance(ALGORITHM).digest(content));
+    }
+
+    private Bag check(final Input input) {
+        final Bag bag = new Bag(input);
+        this.parseAction.check(bag);
+        this.action.check(bag);
+        return bag;
+    }
+
+    private void assertReadOnce(final Input input, final byte[] content, final Counter counter) throws Exception {
+        final Bag bag = check(input);
+        assertThat(counter.opened.get()).isEqualTo(1);
+        assertThat(counter.bytes.get()).isEqualTo(content.length);
+        assertHash(bag, content);
+    }
+
+    private static void assertHash(final Bag bag, final byte[] content) throws Exception {
+        final DocumentHash hash = bag.getReportInput().getDocumentIdentification().getDocumentHash();
+        assertThat(hash.getHashAlgorithm()).isEqualTo(ALGORITHM);
+        assertThat(hash.getHashValue()).isEqualTo(MessageDigest.getInstance(ALGORITHM).digest(content));
+    }
+
+    private static URL createUrl(final byte[] content, final Counter counter) throws MalformedURLException {
+        return new URL(null, "counting:/document.xml", new URLStreamHandler() {
+
+            @Override
+            protected URLConnection openConnection(final URL u) {
+                return new URLConnection(u) {
+
+                    @Override
+                    public void connect() {
+                        // nothing to do
+                    }
+
+                    @Override
+                    public InputStream getInputStream() {
+                        return counter.open(content);
+                    }
+                };
+            }
+        });
+    }
+
+    private static byte[] bytes(final String document) {
+        return document.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -19,12 +19,9 @@ package de.kosit.validationtool.impl.tasks;
 import static de.kosit.validationtool.config.TestConfigurationFactory.createScenario;
 import static de.kosit.validationtool.impl.Helper.serialize;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
-import javax.xml.transform.Source;
-
 import org.junit.Before;
 import org.junit.Test;
 
@@ -87,7 +84,7 @@ public class CreateReportActionTest {
         this.action = new CreateReportAction(p, new ConversionService());
 
         when(p.newDocumentBuilder()).thenReturn(documentBuilder);
-        when(documentBuilder.build(any(Source.class))).thenThrow(new SaxonApiException("mocked"));
+        when(documentBuilder.newBuildingContentHandler()).thenThrow(new SaxonApiException("mocked"));
         final Bag bag = TestBagBuilder.createBag(InputFactory.read(Simple.SIMPLE_VALID), true);
         this.action.check(bag);
         assertThat(bag.isStopped()).isTrue();
@@ -19,14 +19,26 @@ package de.kosit.validationtool.impl.tasks;
 import static de.kosit.validationtool.api.InputFactory.read;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.impl.DocumentProlog;
 import de.kosit.validationtool.impl.Helper;
 import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.ScenarioRepository;
 import de.kosit.validationtool.impl.model.Result;
+import de.kosit.validationtool.impl.tasks.CheckAction.Bag;
 import de.kosit.validationtool.model.reportInput.XMLSyntaxError;
 
 import net.sf.saxon.s9api.XdmNode;
@@ -66,6 +78,44 @@ public class DocumentParseActionTest {
         assertThat(result.isValid()).isFalse();
     }
 
+    @Test
+    public void testPreSelection() throws IOException {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor());
+        this.action = new DocumentParseAction(Helper.getTestProcessor(), new ScenarioRepository(config));
+
+        final Bag valid = check(Simple.SIMPLE_VALID);
+        assertThat(valid.getPreselectedScenarios()).hasSize(1);
+        assertThat(valid.getParserResult().getObject()).isNotNull();
+
+        final Bag unknown = check(Simple.UNKNOWN);
+        assertThat(unknown.getPreselectedScenarios()).isEmpty();
+        assertThat(unknown.getParserResult().isValid()).isTrue();
+        // only the prolog
+        assertThat(unknown.getParserResult().getObject().children().iterator().next().getNodeName().getLocalName())
+                .isEqualTo("existiertNicht");
+        assertThat(unknown.getParserResult().getObject().toString()).doesNotContain("inner");
+        // document identification is still possible
+        assertThat(unknown.getInput().getHashCode()).isEqualTo(read(Simple.UNKNOWN).getHashCode());
+
+        final Bag garbage = check(Simple.NOT_WELLFORMED);
+        assertThat(garbage.getParserResult().isValid()).isFalse();
+    }
+
+    @Test
+    public void testPreSelectionChecksWellformedness() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor());
+        this.action = new DocumentParseAction(Helper.getTestProcessor(), new ScenarioRepository(config));
+        // the syntax error is located behind the prolog
+        final String content = "<unknown>" + StringUtils.repeat("<item>content</item>", 2 * DocumentProlog.PREFIX_SIZE / 20)
+                + "<item></unknown>";
+        final Bag bag = new Bag(read(content.getBytes(StandardCharsets.UTF_8), "unknown.xml"));
+        this.action.check(bag);
+        assertThat(bag.getPreselectedScenarios()).isEmpty();
+        assertThat(bag.getParserResult().isValid()).isFalse();
+        assertThat(bag.getReportInput().getValidationResultsWellformedness().getXmlSyntaxError()).isNotEmpty();
+        assertThat(bag.isStopped()).isTrue();
+    }
+
     @Test
     public void testNullInput() {
         this.exception.expect(IllegalArgumentException.class);
@@ -73,4 +123,11 @@ public class DocumentParseActionTest {
 
     }
 
+    private Bag check(final URI uri) throws IOException {
+        try ( final InputStream stream = uri.toURL().openStream() ) {
+            final Bag bag = new Bag(read(new StreamSource(stream), uri.toString(), "SHA-256"));
+            this.action.check(bag);
+            return bag;
+        }
+    }
 }
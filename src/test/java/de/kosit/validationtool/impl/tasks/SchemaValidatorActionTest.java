@@ -106,18 +106,17 @@ public class SchemaValidatorActionTest {
     }
 
     @Test
-    public void testNoRepeatableReadBigFile() throws Exception {
-        try ( final InputStream inputStream = Simple.SIMPLE_VALID.toURL().openStream() ) {
-            final SourceInput input = (SourceInput) InputFactory.read(new StreamSource(inputStream));
-            final Bag bag = createBag(input);
-            // set limit and length for serialization to 5 bytes
-            this.service.setInMemoryLimit(5L);
-            input.setLength(6L);
-
-            bag.setParserResult(Helper.parseDocument(InputFactory.read(Simple.SIMPLE_VALID.toURL())));
+    public void testNoRepeatableReadValidationFailure() throws Exception {
+        try ( final InputStream inputStream = Simple.SCHEMA_INVALID.toURL().openStream() ) {
+            final Bag bag = createBag(InputFactory.read(new StreamSource(inputStream)));
+            bag.setParserResult(Helper.parseDocument(InputFactory.read(Simple.SCHEMA_INVALID.toURL())));
             this.service.check(bag);
-            assertThat(bag.getSchemaValidationResult()).isNotNull();
-            assertThat(bag.getSchemaValidationResult().isValid()).isTrue();
+            assertThat(bag.getSchemaValidationResult().isValid()).isFalse();
+            assertThat(bag.getSchemaValidationResult().getErrors()).isNotEmpty();
+            bag.getSchemaValidationResult().getErrors().forEach(e -> {
+                assertThat(e.getRowNumber()).isGreaterThan(0);
+                assertThat(e.getSeverity()).isEqualTo(Severity.SEVERITY_ERROR);
+            });
         }
     }
 
@@ -135,22 +134,6 @@ public class SchemaValidatorActionTest {
         }
     }
 
-    @Test
-    public void testNoRepeatableReaderInputBigFile() throws Exception {
-        try ( final InputStream inputStream = Simple.SIMPLE_VALID.toURL().openStream();
-              final Reader reader = new InputStreamReader(inputStream) ) {
-            final SourceInput input = (SourceInput) InputFactory.read(new StreamSource(reader));
-            final Bag bag = createBag(input);
-            // set limit and length for serialization to 5 bytes
-            this.service.setInMemoryLimit(5L);
-            bag.setParserResult(Helper.parseDocument(InputFactory.read(Simple.SIMPLE_VALID.toURL())));
-            this.service.check(bag);
-            this.service.check(bag);
-            assertThat(bag.getSchemaValidationResult()).isNotNull();
-            assertThat(bag.getSchemaValidationResult().isValid()).isTrue();
-        }
-    }
-
     @Test
     public void testProcessingError() throws IOException, SAXException {
         final CheckAction.Bag bag = createBag(InputFactory.read(Simple.SIMPLE_VALID.toURL()));
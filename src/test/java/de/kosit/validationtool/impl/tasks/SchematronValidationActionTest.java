@@ -23,16 +23,24 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.oclc.purl.dsdl.svrl.FailedAssert;
 
 import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.impl.ContentRepository;
 import de.kosit.validationtool.impl.ConversionService;
 import de.kosit.validationtool.impl.Helper.Simple;
 import de.kosit.validationtool.impl.Scenario;
 import de.kosit.validationtool.impl.Scenario.Transformation;
+import de.kosit.validationtool.model.reportInput.ValidationResultsSchematron;
 import de.kosit.validationtool.model.scenarios.ResourceType;
 
 import net.sf.saxon.s9api.SaxonApiException;
@@ -68,4 +76,53 @@ public class SchematronValidationActionTest {
         this.action.check(bag);
         assertThat(bag.getReportInput().getProcessingError().getError()).isNotEmpty();
     }
+
+    @Test
+    public void testParallelExecution() throws IOException, SaxonApiException {
+        final CheckAction.Bag bag = createBag(InputFactory.read(Simple.SIMPLE_VALID.toURL()), true);
+        final Scenario scenario = bag.getScenarioSelectionResult().getObject();
+        final ContentRepository repository = Simple.createContentRepository();
+        scenario.setUriResolver(repository.getResolver());
+        final XsltExecutable valid = repository.loadXsltScript(Simple.REPOSITORY_URI.resolve("simple.xsl"));
+        final XsltExecutable exec = mock(XsltExecutable.class);
+        final XsltTransformer transformer = mock(XsltTransformer.class);
+        doThrow(new SaxonApiException("invalid")).when(transformer).transform();
+        when(exec.load()).thenReturn(transformer);
+        scenario.setSchematronValidations(Arrays.asList(new Transformation(valid, createResourceType("first")),
+                new Transformation(exec, createResourceType("second")), new Transformation(valid, createResourceType("third"))));
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            this.action.setExecutor(executor);
+            this.action.check(bag);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(bag.getReportInput().getValidationResultsSchematron().stream().map(ValidationResultsSchematron::getResource)
+                .map(ResourceType::getName).collect(Collectors.toList())).containsExactly("first", "second", "third");
+        assertThat(bag.getReportInput().getValidationResultsSchematron().get(0).getResults().getSchematronOutput().getActivePatterns())
+                .isNotEmpty();
+        assertThat(bag.getReportInput().getProcessingError().getError()).hasSize(1);
+    }
+
+    @Test
+    public void testFailedAsserts() throws IOException {
+        final CheckAction.Bag bag = createBag(InputFactory.read(Simple.SCHEMATRON_INVALID.toURL()), true);
+        final Scenario scenario = bag.getScenarioSelectionResult().getObject();
+        final ContentRepository repository = Simple.createContentRepository();
+        scenario.setUriResolver(repository.getResolver());
+        scenario.setSchematronValidations(Collections.singletonList(
+                new Transformation(repository.loadXsltScript(Simple.REPOSITORY_URI.resolve("simple.xsl")), createResourceType("simple"))));
+        this.action.check(bag);
+        final List<FailedAssert> failed = bag.getReportInput().getValidationResultsSchematron().get(0).getResults().getSchematronOutput()
+                .getFailedAsserts();
+        assertThat(failed).isNotEmpty();
+        assertThat(failed.get(0).getId()).isEqualTo("content-1");
+        assertThat(failed.get(0).getText().getContent()).isNotEmpty();
+    }
+
+    private static ResourceType createResourceType(final String name) {
+        final ResourceType resourceType = new ResourceType();
+        resourceType.setName(name);
+        return resourceType;
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.kosit.validationtool.api.Configuration;
+import de.kosit.validationtool.api.Input;
+import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.ScenarioRepository;
+import de.kosit.validationtool.impl.tasks.CheckAction.Bag;
+
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.streams.Predicates;
+import net.sf.saxon.s9api.streams.Steps;
+
+/**
+ * Tests {@link SinglePassParseAction}.
+ */
+public class SinglePassParseActionTest {
+
+    private SinglePassParseAction action;
+
+    private ScenarioRepository repository;
+
+    @Before
+    public void setup() {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).build(Helper.getTestProcessor());
+        this.repository = new ScenarioRepository(config);
+        this.action = new SinglePassParseAction(Helper.getTestProcessor(), this.repository);
+    }
+
+    @Test
+    public void testValid() throws IOException {
+        final Bag bag = check(Simple.SIMPLE_VALID);
+        assertThat(bag.getParserResult().isValid()).isTrue();
+        assertThat(bag.getPreValidationResult()).isNotNull();
+        assertThat(bag.getPreValidationResult().isValid()).isTrue();
+        assertThat(bag.getPreValidationSchema())
+                .isSameAs(this.repository.selectScenario(bag.getParserResult().getObject()).getObject().getSchema());
+    }
+
+    @Test
+    public void testSchemaInvalid() throws IOException {
+        final Bag bag = check(Simple.SCHEMA_INVALID);
+        assertThat(bag.getParserResult().isValid()).isTrue();
+        assertThat(bag.getPreValidationResult().isValid()).isFalse();
+        bag.getPreValidationResult().getErrors().forEach(e -> assertThat(e.getRowNumber()).isGreaterThan(0));
+        // line numbers are preserved in the tree
+        assertThat(bag.getParserResult().getObject().children().iterator().next().getLineNumber()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testNotWellformed() throws IOException {
+        final Bag bag = check(Simple.NOT_WELLFORMED);
+        assertThat(bag.getParserResult().isValid()).isFalse();
+        assertThat(bag.isStopped()).isTrue();
+        assertThat(bag.getPreValidationResult()).isNull();
+    }
+
+    @Test
+    public void testUnknownRoot() throws IOException {
+        final Bag bag = check(Simple.UNKNOWN);
+        assertThat(bag.getParserResult().isValid()).isTrue();
+        assertThat(bag.getPreValidationResult()).isNull();
+    }
+
+    @Test
+    public void testComments() throws Exception {
+        final String content = new String(Files.readAllBytes(Paths.get(Simple.SIMPLE_VALID)), StandardCharsets.UTF_8)
+                .replaceFirst("(<[^?!][^>]*>)", "$1<!-- a comment -->");
+        final Bag bag = new Bag(InputFactory.read(content.getBytes(StandardCharsets.UTF_8), "comment.xml"));
+        this.action.check(bag);
+        assertThat(bag.getPreValidationResult().isValid()).isTrue();
+        final XdmNode document = bag.getParserResult().getObject();
+        // the license header
+        assertThat(document.children()).anyMatch(n -> n.getNodeKind() == XdmNodeKind.COMMENT);
+        final XdmNode root = document.select(Steps.child(Predicates.isElement())).asNode();
+        assertThat(root.children()).anyMatch(n -> n.getNodeKind() == XdmNodeKind.COMMENT && n.getStringValue().equals(" a comment "));
+    }
+
+    @Test
+    public void testLazyCandidates() throws IOException {
+        final Configuration config = Configuration.load(Simple.SCENARIOS, Simple.REPOSITORY_URI).setLazyInitialization(true)
+                .build(Helper.getTestProcessor());
+        this.action = new SinglePassParseAction(Helper.getTestProcessor(), new ScenarioRepository(config));
+        final Bag bag = check(Simple.SIMPLE_VALID);
+        assertThat(bag.getPreValidationResult().isValid()).isTrue();
+        // only the first candidate is compiled for the validation
+        assertThat(bag.getPreselectedScenarios().stream().skip(1)).noneMatch(Scenario::isInitialized);
+        assertThat(config.getScenarios().stream().filter(s -> !bag.getPreselectedScenarios().contains(s)))
+                .noneMatch(Scenario::isInitialized);
+    }
+
+    @Test
+    public void testHashcode() throws IOException {
+        final Input expected = InputFactory.read(Simple.SIMPLE_VALID.toURL());
+        final Bag bag = check(Simple.SIMPLE_VALID);
+        assertThat(bag.getInput().getHashCode()).isEqualTo(expected.getHashCode());
+    }
+
+    private Bag check(final URI uri) throws IOException {
+        try ( final InputStream stream = uri.toURL().openStream() ) {
+            final Bag bag = new Bag(InputFactory.read(new StreamSource(stream), uri.toString(), "SHA-256"));
+            this.action.check(bag);
+            return bag;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.tasks;
+
+import static de.kosit.validationtool.impl.tasks.TestBagBuilder.createBag;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.kosit.validationtool.api.InputFactory;
+import de.kosit.validationtool.impl.ContentRepository;
+import de.kosit.validationtool.impl.ConversionService;
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+import de.kosit.validationtool.impl.Scenario;
+import de.kosit.validationtool.impl.Scenario.Transformation;
+import de.kosit.validationtool.model.scenarios.ResourceType;
+
+/**
+ * Tests {@link SpeculativeValidationAction}.
+ */
+public class SpeculativeValidationActionTest {
+
+    private ExecutorService executor;
+
+    private SpeculativeValidationAction action;
+
+    @Before
+    public void setup() {
+        this.executor = Executors.newSingleThreadExecutor();
+        this.action = new SpeculativeValidationAction(new SchemaValidationAction(Helper.getTestProcessor()),
+                new SchematronValidationAction(new ConversionService()), this.executor);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testValid() throws IOException {
+        final CheckAction.Bag bag = createSchematronBag(Simple.SIMPLE_VALID);
+        this.action.check(bag);
+        assertThat(bag.getSchemaValidationResult().isValid()).isTrue();
+        assertThat(bag.getReportInput().getValidationResultsSchematron()).hasSize(1);
+        assertThat(bag.getReportInput().getValidationResultsSchematron().get(0).getResults()).isNotNull();
+    }
+
+    @Test
+    public void testSchemaInvalid() throws IOException {
+        final CheckAction.Bag bag = createSchematronBag(Simple.SCHEMA_INVALID);
+        this.action.check(bag);
+        assertThat(bag.getSchemaValidationResult().isValid()).isFalse();
+        assertThat(bag.getReportInput().getValidationResultsSchematron()).isEmpty();
+    }
+
+    private static CheckAction.Bag createSchematronBag(final URI input) throws IOException {
+        final CheckAction.Bag bag = createBag(InputFactory.read(input.toURL()), true);
+        final Scenario scenario = bag.getScenarioSelectionResult().getObject();
+        final ContentRepository repository = Simple.createContentRepository();
+        scenario.setUriResolver(repository.getResolver());
+        final ResourceType resourceType = new ResourceType();
+        resourceType.setName("simple");
+        scenario.setSchematronValidations(Collections
+                .singletonList(new Transformation(repository.loadXsltScript(Simple.REPOSITORY_URI.resolve("simple.xsl")), resourceType)));
+        return bag;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import de.kosit.validationtool.impl.Helper;
+
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Tests {@link CachedXPath}.
+ */
+public class CachedXPathTest {
+
+    private final Processor processor = Helper.getTestProcessor();
+
+    @Test
+    public void testReuse() throws Exception {
+        final CachedXPath xpath = new CachedXPath(this.processor.newXPathCompiler().compile("/a/@v = 'x'"));
+        assertThat(xpath.effectiveBooleanValue(parse("<a v='x'/>"))).isTrue();
+        assertThat(xpath.effectiveBooleanValue(parse("<a v='y'/>"))).isFalse();
+        assertThat(xpath.evaluate(parse("<a v='x'/>")).itemAt(0).getStringValue()).isEqualTo("true");
+    }
+
+    @Test
+    public void testEvaluationError() throws Exception {
+        final CachedXPath xpath = new CachedXPath(this.processor.newXPathCompiler().compile("xs:integer(/a/@v) = 1"));
+        assertThatThrownBy(() -> xpath.effectiveBooleanValue(parse("<a v='x'/>"))).isInstanceOf(SaxonApiException.class);
+        // still usable
+        assertThat(xpath.effectiveBooleanValue(parse("<a v='1'/>"))).isTrue();
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws Exception {
+        final CachedXPath xpath = new CachedXPath(this.processor.newXPathCompiler().compile("xs:integer(/a/@v) mod 2 = 0"));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final XdmNode document = parse("<a v='" + i + "'/>");
+                results.add(executor.submit(() -> xpath.effectiveBooleanValue(document)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNoExecutable() {
+        assertThatThrownBy(() -> new CachedXPath(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private XdmNode parse(final String xml) throws SaxonApiException {
+        return this.processor.newDocumentBuilder().build(new StreamSource(new StringReader(xml)));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2022  Koordinierungsstelle für IT-Standards (KoSIT)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.kosit.validationtool.impl.xml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import de.kosit.validationtool.impl.Helper;
+import de.kosit.validationtool.impl.Helper.Simple;
+
+import net.sf.saxon.s9api.DocumentBuilder;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.XdmNode;
+
+/**
+ * Tests {@link XdmNodeReader}.
+ */
+public class XdmNodeReaderTest {
+
+    @Test
+    public void testReplay() throws Exception {
+        final Processor processor = Helper.getTestProcessor();
+        final DocumentBuilder builder = processor.newDocumentBuilder();
+        builder.setLineNumbering(true);
+        final XdmNode node = builder.build(new StreamSource(Simple.SIMPLE_VALID.toASCIIString()));
+        final List<String> elements = new ArrayList<>();
+        final List<Integer> lines = new ArrayList<>();
+        final XdmNodeReader reader = new XdmNodeReader(processor, node);
+        reader.setContentHandler(new DefaultHandler() {
+
+            private Locator locator;
+
+            @Override
+            public void setDocumentLocator(final Locator locator) {
+                this.locator = locator;
+            }
+
+            @Override
+            public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+                elements.add(localName);
+                lines.add(this.locator != null ? this.locator.getLineNumber() : -1);
+            }
+        });
+        reader.parse(new InputSource());
+        assertThat(elements).isNotEmpty();
+        assertThat(elements.get(0)).isEqualTo("simple");
+        assertThat(lines).allMatch(l -> l > 0);
+    }
+
+    @Test
+    public void testFeatures() throws Exception {
+        final XdmNodeReader reader = new XdmNodeReader(Helper.getTestProcessor(), null);
+        assertThat(reader.getFeature("http://xml.org/sax/features/namespaces")).isTrue();
+        reader.setFeature("http://xml.org/sax/features/namespaces", true);
+        assertThatThrownBy(() -> reader.setFeature("http://xml.org/sax/features/namespaces", false))
+                .isInstanceOf(SAXNotRecognizedException.class);
+        assertThatThrownBy(() -> reader.getFeature("unknown")).isInstanceOf(SAXNotRecognizedException.class);
+    }
+}